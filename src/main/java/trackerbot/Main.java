@@ -3,12 +3,15 @@ package trackerbot;
 import java.io.IOException;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
+import trackerbot.api.ApiServer;
 import trackerbot.exception.TrackerBotException;
 import trackerbot.gui.MainWindow;
+import trackerbot.replication.ReplicationPrimary;
 
 /**
  * A GUI for TrackerBot using FXML.
@@ -16,8 +19,20 @@ import trackerbot.gui.MainWindow;
  * @version Level-10
  */
 public class Main extends Application {
+    /** System property of the port to serve the local API on. The API is off if it is not set. */
+    private static final String API_PORT_PROPERTY = "trackerbot.api.port";
 
-    private TrackerBot trackerBot = TrackerBot.instantiate();
+    /** System property of the port to accept followers on. Replication is off if it is not set. */
+    private static final String REPLICATION_PORT_PROPERTY = "trackerbot.replication.port";
+
+    /** System property of the replication port of the TrackerBot to follow, as a hot standby. */
+    private static final String FOLLOW_PORT_PROPERTY = "trackerbot.follow";
+
+    private TrackerBot trackerBot;
+
+    private ApiServer apiServer;
+
+    private ReplicationPrimary replicationPrimary;
 
     @Override
     public void start(Stage stage) {
@@ -28,18 +43,73 @@ public class Main extends Application {
             stage.setScene(scene);
             stage.setResizable(false);
             stage.titleProperty().set("TrackerBot");
-            fxmlLoader.<MainWindow>getController().setTrackerBot(trackerBot);
+            MainWindow mainWindow = fxmlLoader.getController();
+            Integer followPort = Integer.getInteger(FOLLOW_PORT_PROPERTY);
+            if (followPort != null) {
+                trackerBot = TrackerBot.instantiateFollower(followPort, Platform::runLater, mainWindow::addBotMessage);
+            } else {
+                // the save file loads in the background, so the window is shown without waiting for it
+                trackerBot = TrackerBot.instantiateInBackground(Platform::runLater, mainWindow::addBotMessage);
+            }
+            mainWindow.setTrackerBot(trackerBot);
+            startApi();
+            startReplication();
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Starts the local API, if a port is given in the API_PORT_PROPERTY system property.
+     * <p>Commands from the API are run on the UI thread, like commands typed into the window.</p>
+     */
+    private void startApi() {
+        Integer port = Integer.getInteger(API_PORT_PROPERTY);
+        if (port == null) {
+            return;
+        }
+        apiServer = new ApiServer(trackerBot, Platform::runLater);
+        try {
+            apiServer.start(port);
+        } catch (IOException e) {
+            System.err.println("Failed to start the API: " + e.getMessage());
+            apiServer = null;
+        }
+    }
+
+    /**
+     * Starts accepting followers, if a port is given in the REPLICATION_PORT_PROPERTY system property.
+     * <p>Snapshots for the followers are taken on the UI thread, where the Task List is changed.</p>
+     */
+    private void startReplication() {
+        Integer port = Integer.getInteger(REPLICATION_PORT_PROPERTY);
+        if (port == null) {
+            return;
+        }
+        replicationPrimary = new ReplicationPrimary(trackerBot, Platform::runLater);
+        try {
+            replicationPrimary.start(port);
+        } catch (IOException e) {
+            System.err.println("Failed to start replication: " + e.getMessage());
+            replicationPrimary = null;
+        }
+    }
+
     /**
      * Attempts to save the data from TrackerBot in the exit sequence.
      */
     @Override
     public void stop() {
+        if (apiServer != null) {
+            apiServer.stop();
+        }
+        if (replicationPrimary != null) {
+            replicationPrimary.stop();
+        }
+        if (trackerBot == null) {
+            return;
+        }
         try {
             trackerBot.handleSave();
         } catch (TrackerBotException e) {
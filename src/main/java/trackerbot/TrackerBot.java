@@ -1,9 +1,23 @@
 package trackerbot;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
 import trackerbot.command.Command;
+import trackerbot.command.CommandResult;
+import trackerbot.command.CommandType;
 import trackerbot.exception.TrackerBotException;
 import trackerbot.gui.UiHandler;
+import trackerbot.replication.ReplicationFollower;
+import trackerbot.task.ChangeFeed;
+import trackerbot.task.IncrementalSearch;
+import trackerbot.task.ReminderScheduler;
+import trackerbot.task.Task;
 import trackerbot.task.TaskList;
+import trackerbot.task.Workspaces;
 import trackerbot.utils.Parser;
 import trackerbot.utils.Storage;
 
@@ -19,12 +33,48 @@ public class TrackerBot {
     /** Name of the app. **/
     private static final String APP_NAME = "TrackerBot";
 
-    /** Collection of tasks stored by TrackerBot */
+    /** Completed Tasks dated more than this many days ago are archived automatically on save. */
+    private static final int AUTO_ARCHIVE_DAYS = 30;
+
+    /** How long before the date of a Deadline or Event to remind the user of it. */
+    private static final Duration REMINDER_LEAD_TIME = Duration.ofHours(1);
+
+    /** Number of recent changes to the Task List kept for subscribers that fall behind. */
+    private static final int CHANGE_FEED_CAPACITY = 1 << 16;
+
+    /** Number of Tasks kept in memory across the workspaces, beyond which idle workspaces are dropped. */
+    private static final long WORKSPACE_TASK_BUDGET = 200_000;
+
+    /** Collection of tasks stored by TrackerBot, which is the Task List of the workspace in use. */
     private TaskList tasks;
 
+    /** The loaded workspaces, including the one in use. */
+    private final Workspaces workspaces;
+
     /** Displays user IO. */
     private UiHandler uiHandler;
 
+    /** Whether the save file is still being loaded in the background. */
+    private boolean isLoading;
+
+    /** User inputs received while the save file was loading, in the order received. */
+    private final ArrayDeque<String> pendingInputs = new ArrayDeque<>();
+
+    /** Receives the messages produced once the background load completes, and reminders. */
+    private Consumer<String> loadListener;
+
+    /** Runs the completion of the background load and the delivery of reminders. */
+    private Executor resultExecutor;
+
+    /** Publishes the changes to the Task List, and stays the same feed when the loaded list is swapped in. */
+    private final ChangeFeed changeFeed = new ChangeFeed(CHANGE_FEED_CAPACITY);
+
+    /** Applies the changes of the TrackerBot being followed, or null if this TrackerBot is not following. */
+    private ReplicationFollower follower;
+
+    /** Sends the reminders of the workspace in use, or null if reminders are off. */
+    private ReminderScheduler reminders;
+
     /**
      * Constructs the TrackerBot instance.
      *
@@ -32,6 +82,8 @@ public class TrackerBot {
      */
     private TrackerBot(String appName) {
         tasks = new TaskList();
+        tasks.setChangeFeed(changeFeed);
+        workspaces = new Workspaces(tasks, WORKSPACE_TASK_BUDGET);
         uiHandler = UiHandler.instantiate(appName);
     }
 
@@ -46,20 +98,172 @@ public class TrackerBot {
         try {
             Storage.read(instance.tasks);
         } catch (TrackerBotException e) {
-            instance.uiHandler.setError("I failed to retrieve your save file. "
-                    + "Here's the error I got: \n" + e.getMessage());
+            instance.uiHandler.setError(getLoadErrorMessage(e));
         }
 
         return instance;
     }
 
     /**
-     * Saves the tasks in TaskList, if any.
+     * Instantiates the TrackerBot object with an empty Task List, without reading the save file.
+     * <p>This is for headless tools, such as load harnesses, that must not depend on or
+     * overwrite the data of the user. Such an instance should never call handleSave.</p>
+     *
+     * @return The TrackerBot instance, with an empty Task List.
+     */
+    public static TrackerBot instantiateDetached() {
+        return new TrackerBot(APP_NAME);
+    }
+
+    /**
+     * Instantiates the TrackerBot object, and loads the save file on a background thread.
+     * <p>The instance can be shown to the user immediately. Inputs received before the load
+     * completes are queued, and run in order once the Task List is ready.</p>
+     * <p>The save file is read into a separate TaskList, which is handed over through
+     * resultExecutor, so the Task List is only ever touched by the thread that runs
+     * resultExecutor and handleInput.</p>
+     *
+     * @param resultExecutor The executor to complete the load on, such as the UI thread.
+     * @param loadListener Receives the load result, followed by the reply to each queued input.
+     *                     Reminders of upcoming Tasks are also sent here, through resultExecutor.
+     * @return The TrackerBot instance, with an empty Task List until the load completes.
+     */
+    public static TrackerBot instantiateInBackground(Executor resultExecutor, Consumer<String> loadListener) {
+        TrackerBot instance = new TrackerBot(APP_NAME);
+        instance.isLoading = true;
+        instance.loadListener = loadListener;
+        instance.resultExecutor = resultExecutor;
+        instance.uiHandler.setMessage(instance.uiHandler.getMessage() + "\n(I am still loading your tasks...)");
+
+        Thread loader = new Thread(() -> {
+            TaskList loadedTasks = new TaskList();
+            String loadMessage;
+            try {
+                Storage.readLazily(loadedTasks);
+                loadMessage = "I have finished loading " + loadedTasks.getSize() + " task(s).";
+            } catch (TrackerBotException e) {
+                loadMessage = "Oh dear.\n" + getLoadErrorMessage(e);
+            }
+            String finalLoadMessage = loadMessage;
+            resultExecutor.execute(() -> instance.completeLoad(loadedTasks, finalLoadMessage));
+        }, "TrackerBot-loader");
+        loader.setDaemon(true);
+        loader.start();
+
+        return instance;
+    }
+
+    /**
+     * Instantiates the TrackerBot object as a hot standby, following another TrackerBot.
+     * <p>The Task List is a replica of the Task List of the TrackerBot being followed, kept up to
+     * date by a ReplicationFollower, so the save file is not read. Until the promote command is
+     * run, only commands that leave the Task List unchanged are accepted.</p>
+     *
+     * @param port The replication port of the TrackerBot to follow, on the loopback address.
+     * @param resultExecutor The executor that owns the Task List, such as the UI thread.
+     * @param loadListener Receives reminders, once this TrackerBot is promoted.
+     * @return The TrackerBot instance, with an empty Task List until the first snapshot arrives.
+     */
+    public static TrackerBot instantiateFollower(int port, Executor resultExecutor, Consumer<String> loadListener) {
+        TrackerBot instance = new TrackerBot(APP_NAME);
+        instance.loadListener = loadListener;
+        instance.resultExecutor = resultExecutor;
+        instance.follower = new ReplicationFollower(instance.tasks, resultExecutor, lagMicros -> {});
+        instance.follower.start(port);
+        instance.uiHandler.setMessage(instance.uiHandler.getMessage() + "\n(I am following the TrackerBot on port "
+                + port + ". Type " + CommandType.PROMOTE.getKeyword() + " to take over from it.)");
+        return instance;
+    }
+
+    private static String getLoadErrorMessage(TrackerBotException e) {
+        return "I failed to retrieve your save file. "
+                + "Here's the error I got: \n" + e.getMessage();
+    }
+
+    /**
+     * Swaps in the loaded Task List and starts its reminders, then runs the inputs
+     * queued during the load.
      *
-     * @throws TrackerBotException if the save fails.
+     * @param loadedTasks The Task List read from the save file.
+     * @param loadMessage The message describing the result of the load.
+     */
+    private void completeLoad(TaskList loadedTasks, String loadMessage) {
+        tasks = loadedTasks;
+        tasks.setChangeFeed(changeFeed);
+        workspaces.put(Workspaces.DEFAULT_WORKSPACE, tasks);
+        isLoading = false;
+        startReminders();
+        loadListener.accept(loadMessage);
+        while (!pendingInputs.isEmpty()) {
+            loadListener.accept(handleInput(pendingInputs.poll()));
+        }
+    }
+
+    /**
+     * Starts the reminders of the Task List in use, replacing the reminders of the previous one, if any.
+     */
+    private void startReminders() {
+        if (reminders != null) {
+            reminders.stop();
+        }
+        TaskList remindedTasks = tasks;
+        reminders = new ReminderScheduler(REMINDER_LEAD_TIME,
+                task -> resultExecutor.execute(() -> sendReminder(remindedTasks, task)));
+        tasks.setReminderScheduler(reminders);
+        reminders.start();
+    }
+
+    /**
+     * Stops following the other TrackerBot, and takes over from it with the Task List as replicated so far.
+     *
+     * @return The result holding the message confirming the take over.
+     */
+    private CommandResult promote() {
+        follower.promote();
+        follower = null;
+        startReminders();
+        uiHandler.setMessage("I have taken over, with " + tasks.getSize() + " task(s) on my list.");
+        return uiHandler.getResult();
+    }
+
+    /**
+     * Sends the reminder of the Task to the load listener.
+     * <p>The Task may have been completed or deleted, or the user may have switched workspaces,
+     * while its reminder was being handed over from the scheduler thread, in which case no
+     * reminder is sent.</p>
+     *
+     * @param remindedTasks The Task List that the Task belongs to.
+     * @param task The Task whose reminder is due.
+     */
+    private void sendReminder(TaskList remindedTasks, Task task) {
+        if (remindedTasks != tasks || task.isDone()) {
+            return;
+        }
+        try {
+            uiHandler.setReminder(tasks.getIndexOfId(task.getId()), task.toString());
+        } catch (TrackerBotException e) {
+            return;
+        }
+        loadListener.accept(uiHandler.getMessage());
+    }
+
+    /**
+     * Saves the tasks in every loaded workspace that changed, if any.
+     * <p>Completed Tasks dated more than AUTO_ARCHIVE_DAYS ago are moved into the archive
+     * first, so they are not loaded again on the next startup.</p>
+     * <p>A follower that has not been promoted saves nothing, as its Task List is only a replica,
+     * and the TrackerBot it follows owns the save file and the archive.</p>
+     *
+     * @throws TrackerBotException if the save fails, or if the save file is still loading.
      */
     public void handleSave() throws TrackerBotException {
-        Storage.save(tasks);
+        if (follower != null) {
+            return;
+        }
+        if (isLoading) {
+            throw new TrackerBotException("The save file was still loading, so it was left unchanged.");
+        }
+        workspaces.saveAll(LocalDateTime.now().minusDays(AUTO_ARCHIVE_DAYS));
     }
 
     /**
@@ -71,14 +275,154 @@ public class TrackerBot {
         return uiHandler.getMessage();
     }
 
+    /**
+     * Returns the Task List as JSON.
+     * <p>Like handleInput, this must be called from the thread that owns the Task List.</p>
+     *
+     * @return The JSON representation of the Task List.
+     * @see TaskList#exportJson()
+     */
+    public String getTasksAsJson() {
+        return tasks.exportJson();
+    }
+
+    /**
+     * Returns the Task List in the save format, as a snapshot for replication.
+     * <p>Like handleInput, this must be called from the thread that owns the Task List.</p>
+     *
+     * @return The contents of a save file of the Task List.
+     * @see Storage#formatSave(TaskList)
+     */
+    public String exportSave() {
+        return Storage.formatSave(tasks);
+    }
+
+    /**
+     * Gets the feed of the changes to the Task List.
+     * <p>Unlike the Task List, the feed can be read from any thread.</p>
+     *
+     * @return The change feed, which stays the same for the lifetime of the TrackerBot.
+     */
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /**
+     * Gets the completion of the last word of a partly typed input.
+     * <p>The first word, and the first word after mass, is completed to a command keyword.
+     * Any later word is completed to the word used in the most descriptions in the Task List.
+     * Nothing is completed while the save file is still loading.</p>
+     *
+     * @param input The input typed so far.
+     * @return The characters to append to the input to complete its last word, or an empty String
+     *         if there is no completion.
+     */
+    public String getCompletion(String input) {
+        int wordStart = input.lastIndexOf(' ') + 1;
+        String word = input.substring(wordStart);
+        if (isLoading || word.isEmpty()) {
+            return "";
+        }
+        String previousWords = input.substring(0, wordStart).strip();
+        String completion = previousWords.isEmpty() || previousWords.equals(CommandType.MASS.getKeyword())
+                ? CommandType.complete(word)
+                : tasks.completeWord(word);
+        return completion == null || completion.length() <= word.length() ? "" : completion.substring(word.length());
+    }
+
+    /**
+     * Gets the search-as-you-type snapshot of the Task List of the workspace in use.
+     * <p>A new snapshot is returned whenever the Task List changes, or the workspace is switched,
+     * so the matches found by an older snapshot are out of date.</p>
+     *
+     * @return The IncrementalSearch over the Task List as it is now, or null while the save file is loading.
+     */
+    public IncrementalSearch getIncrementalSearch() {
+        return isLoading ? null : tasks.getIncrementalSearch();
+    }
+
     /**
      * Parses a Command and executes it.
+     * <p>If the save file is still loading, the input is queued instead, and its reply
+     * is sent to the load listener once it runs.</p>
+     * <p>If TrackerBot is following another TrackerBot, commands that change the Task List
+     * are refused, until the promote command is run.</p>
      *
      * @return The post-execution String in our UiHandler.
      */
     public String handleInput(String input) {
+        return handleCommand(input).getText();
+    }
+
+    /**
+     * Parses a Command and executes it, as by handleInput, without rendering its reply.
+     * <p>Callers that only need the Tasks affected by the command, or its errors, can skip formatting
+     * the reply altogether. The reply should otherwise be rendered before the next command is run.</p>
+     *
+     * @param input The command entered by the user.
+     * @return The result of the command.
+     */
+    public CommandResult handleCommand(String input) {
+        if (isLoading) {
+            pendingInputs.add(input);
+            return CommandResult.ofMessage("I am still loading your tasks. I will get to this as soon as I am done.");
+        }
+        if (follower != null && input.strip().equals(CommandType.PROMOTE.getKeyword())) {
+            return promote();
+        }
         Command command = Parser.parseCommand(input);
+        if (follower != null && !command.isReadOnly()) {
+            uiHandler.setError("I am following another TrackerBot, so my list can only be changed there.\n"
+                    + "Type " + CommandType.PROMOTE.getKeyword() + " to take over from it first.");
+            return uiHandler.getResult();
+        }
         command.execute(tasks, uiHandler);
-        return uiHandler.getMessage();
+        String workspace = uiHandler.takeRequestedWorkspace();
+        if (workspace != null) {
+            switchWorkspace(workspace);
+        }
+        if (uiHandler.takeSaveRequest()) {
+            saveWorkspace();
+        }
+        return uiHandler.getResult();
+    }
+
+    /**
+     * Saves the Task List of the workspace in use straight away, as the last command asked.
+     * <p>If the save fails, the reply of the command says so, and the save is tried again on exit.</p>
+     */
+    private void saveWorkspace() {
+        try {
+            workspaces.save(tasks);
+        } catch (TrackerBotException e) {
+            uiHandler.setResult(uiHandler.getResult().withErrors(
+                    "\nI could not save your list, so I will try again when you exit:", "\n" + e.getMessage()));
+        }
+    }
+
+    /**
+     * Switches to the workspace, loading it first if it is not in memory.
+     * <p>The change feed and the reminders move over to the Task List of the workspace, so
+     * subscribers see a RESET, and only the reminders of the workspace in use are sent.</p>
+     *
+     * @param name The name of the workspace, as parsed by Parser.parseWorkspaceName.
+     */
+    private void switchWorkspace(String name) {
+        try {
+            TaskList nextTasks = workspaces.get(name);
+            if (nextTasks != tasks) {
+                tasks.setChangeFeed(null);
+                tasks.setReminderScheduler(null);
+                tasks = nextTasks;
+                tasks.setChangeFeed(changeFeed);
+                if (reminders != null) {
+                    startReminders();
+                }
+            }
+            uiHandler.setMessage("I have switched to the " + name + " workspace, with "
+                    + tasks.getSize() + " task(s) on my list.");
+        } catch (TrackerBotException e) {
+            uiHandler.setError(e.getMessage());
+        }
     }
 }
@@ -0,0 +1,351 @@
+package trackerbot.api;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import trackerbot.TrackerBot;
+import trackerbot.command.CommandResult;
+import trackerbot.command.CommandType;
+import trackerbot.exception.TrackerBotException;
+import trackerbot.task.ChangeEvent;
+import trackerbot.task.ChangeFeed;
+import trackerbot.task.Task;
+import trackerbot.utils.Json;
+
+/**
+ * Local HTTP/JSON API over a TrackerBot instance, for scripting TrackerBot without the window.
+ * <p>The API is served by the HttpServer of the JDK, bound to the loopback address only, with
+ * the following endpoints:</p>
+ * <ul>
+ *     <li>POST /commands runs each non-blank line of the request body as a command, in order,
+ *     and replies with a JSON array of {"input", "ran", "ids", "failed", "reply"} objects, one per
+ *     command, where ids are the IDs of the Tasks the command affected. With ?reply=none, the replies
+ *     are never rendered, and the reply field is left out. Commands that only make sense in the window,
+ *     such as bye, use and promote, are refused. A command that throws stops the rest of the batch,
+ *     and so does a batch running past the timeout, and every command after that is reported with
+ *     ran set to false. A batch that times out before it starts is never run at all.</li>
+ *     <li>GET /tasks replies with the Task List as JSON.</li>
+ *     <li>GET /changes?after=SEQUENCE replies with the changes to the Task List after the sequence
+ *     number, as a JSON object of the latest sequence number and the array of events. Without
+ *     a sequence number, it subscribes to the feed, and replies with the sequence number to
+ *     resume from. If the changes are no longer kept, it replies 410 Gone, and the client
+ *     must read the whole list again.</li>
+ * </ul>
+ * <p>The Task List is only ever touched by the thread that owns the TrackerBot, such as the
+ * UI thread, so requests are parsed on the server threads and then handed over to that thread.
+ * A whole batch of commands is handed over at once, so a client can run thousands of commands
+ * for the cost of a single round trip and a single hand-over. Responses always have a fixed
+ * length, so connections are kept alive between requests.</p>
+ * <p>The change feed is lock-free, so changes are read directly on the server threads,
+ * without waiting for the owner thread.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see TrackerBot#handleInput(String)
+ */
+public class ApiServer {
+    /** Number of server threads, which only parse requests and wait on the owner thread. */
+    private static final int SERVER_THREADS = 8;
+
+    /** How long a request waits for the owner thread before giving up. */
+    private static final long OWNER_TIMEOUT_SECONDS = 30;
+
+    /** System property of the JDK HttpServer that disables Nagle's algorithm on its connections. */
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    /** Maximum number of changes replied to a single read of the change feed. */
+    private static final int CHANGES_LIMIT = 4096;
+
+    private static final String AFTER_PARAMETER = "after=";
+    private static final String NO_REPLY_PARAMETER = "reply=none";
+
+    /** Commands that act on the window or the session, rather than on the Task List. */
+    private static final Set<CommandType> WINDOW_COMMANDS = EnumSet.of(CommandType.BYE, CommandType.USE,
+            CommandType.PROMOTE);
+
+    private static final int BATCH_PENDING = 0;
+    private static final int BATCH_RUNNING = 1;
+    private static final int BATCH_STOPPING = 2;
+    private static final int BATCH_CANCELLED = 3;
+
+    private final TrackerBot trackerBot;
+    private final Executor ownerExecutor;
+    private HttpServer server;
+    private ExecutorService serverThreads;
+
+    /**
+     * Constructs an ApiServer over the TrackerBot, without starting it.
+     *
+     * @param trackerBot The TrackerBot to run the commands of the API on.
+     * @param ownerExecutor The executor of the thread that owns the TrackerBot, such as the UI thread.
+     */
+    public ApiServer(TrackerBot trackerBot, Executor ownerExecutor) {
+        this.trackerBot = trackerBot;
+        this.ownerExecutor = ownerExecutor;
+    }
+
+    /**
+     * Starts serving the API on the loopback address.
+     *
+     * @param port The port to listen on, or 0 to pick any free port.
+     * @throws IOException if the server cannot be bound to the port.
+     */
+    public void start(int port) throws IOException {
+        // the headers and body of a response are written separately, so without this, Nagle's algorithm
+        // holds the body back until the client's delayed ACK, adding ~40 ms to every request
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/commands", this::handleCommands);
+        server.createContext("/tasks", this::handleTasks);
+        server.createContext("/changes", this::handleChanges);
+        serverThreads = Executors.newFixedThreadPool(SERVER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "TrackerBot-api");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    /**
+     * Gets the port the API is served on.
+     *
+     * @return The bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops serving the API, closing any open connections.
+     */
+    public void stop() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private void handleCommands(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendError(exchange, 405, "Use POST to run commands.");
+            return;
+        }
+
+        List<String> inputs = new ArrayList<>();
+        try (BufferedReader body = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = body.readLine()) != null) {
+                if (!line.isBlank()) {
+                    inputs.add(line);
+                }
+            }
+        }
+        boolean hasReplies = !NO_REPLY_PARAMETER.equals(exchange.getRequestURI().getQuery());
+        runBatchOnOwner(exchange, inputs, hasReplies);
+    }
+
+    private void handleTasks(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().close();
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendError(exchange, 405, "Use GET to read the tasks.");
+            return;
+        }
+        runOnOwner(exchange, trackerBot::getTasksAsJson);
+    }
+
+    private void handleChanges(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().close();
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendError(exchange, 405, "Use GET to read the changes.");
+            return;
+        }
+
+        ChangeFeed feed = trackerBot.getChangeFeed();
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null || !query.startsWith(AFTER_PARAMETER)) {
+            send(exchange, 200, "{\"last\":" + feed.subscribe() + ",\"events\":[]}");
+            return;
+        }
+
+        List<ChangeEvent> events;
+        try {
+            events = feed.read(Long.parseLong(query.substring(AFTER_PARAMETER.length())), CHANGES_LIMIT);
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "Invalid format: /changes?after=SEQUENCE");
+            return;
+        } catch (TrackerBotException e) {
+            sendError(exchange, 410, e.getMessage());
+            return;
+        }
+
+        StringBuilder json = new StringBuilder("{\"last\":").append(feed.getLastSequence()).append(",\"events\":[");
+        for (int i = 0; i < events.size(); i++) {
+            ChangeEvent event = events.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"sequence\":").append(event.getSequence());
+            json.append(",\"type\":");
+            Json.appendString(json, event.getType().name());
+            json.append(",\"id\":").append(event.getId());
+            json.append(",\"position\":").append(event.getPosition()).append('}');
+        }
+        send(exchange, 200, json.append("]}").toString());
+    }
+
+    /**
+     * Hands the batch over to the owner thread, and replies with the result of each command.
+     * <p>If the batch has not started by the timeout, it is cancelled, so none of its commands are run.
+     * If it has started, it is stopped after the command in progress, and the commands that ran are
+     * reported as usual.</p>
+     */
+    private void runBatchOnOwner(HttpExchange exchange, List<String> inputs, boolean hasReplies) throws IOException {
+        AtomicInteger state = new AtomicInteger(BATCH_PENDING);
+        CompletableFuture<String> batch = CompletableFuture.supplyAsync(
+                () -> runBatch(inputs, hasReplies, state), ownerExecutor);
+        String json;
+        try {
+            try {
+                json = batch.get(OWNER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                if (state.compareAndSet(BATCH_PENDING, BATCH_CANCELLED)) {
+                    sendError(exchange, 503, "TrackerBot is busy, so none of the commands were run. "
+                            + "Please try again later.");
+                    return;
+                }
+                state.set(BATCH_STOPPING);
+                json = batch.get(OWNER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state.compareAndSet(BATCH_PENDING, BATCH_CANCELLED);
+            sendError(exchange, 503, "The server is shutting down.");
+            return;
+        } catch (TimeoutException e) {
+            sendError(exchange, 503, "A command in the batch is still running, so the batch was stopped "
+                    + "after it. Read GET /tasks to see which commands took effect.");
+            return;
+        } catch (ExecutionException e) {
+            sendError(exchange, 500, "The request failed: " + e.getCause());
+            return;
+        }
+        send(exchange, 200, json);
+    }
+
+    /**
+     * Runs every command of the batch in order, on the owner thread.
+     * <p>A command that throws is reported as failed, and the rest of the batch is skipped, so the
+     * client knows exactly which commands took effect.</p>
+     *
+     * @param inputs The commands to run.
+     * @param hasReplies Whether the reply to each command is rendered into the result.
+     * @param state The state of the batch, which is cancelled if the batch should not start.
+     * @return The JSON array of the result of each command, or null if the batch was cancelled.
+     */
+    private String runBatch(List<String> inputs, boolean hasReplies, AtomicInteger state) {
+        if (!state.compareAndSet(BATCH_PENDING, BATCH_RUNNING)) {
+            return null;
+        }
+        StringBuilder json = new StringBuilder("[");
+        boolean isStopped = false;
+        for (int i = 0; i < inputs.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"input\":");
+            Json.appendString(json, inputs.get(i));
+            if (isStopped || state.get() == BATCH_STOPPING) {
+                isStopped = true;
+                json.append(",\"ran\":false}");
+                continue;
+            }
+
+            CommandResult result;
+            try {
+                result = runCommand(inputs.get(i));
+            } catch (RuntimeException e) {
+                result = CommandResult.ofError("The command failed unexpectedly: " + e);
+                isStopped = true;
+            }
+            json.append(",\"ran\":true,\"ids\":[");
+            List<Task> tasks = result.getTasks();
+            for (int j = 0; j < tasks.size(); j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append(tasks.get(j).getId());
+            }
+            json.append("],\"failed\":").append(result.hasErrors());
+            if (hasReplies) {
+                json.append(",\"reply\":");
+                Json.appendString(json, result.getText());
+            }
+            json.append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    private CommandResult runCommand(String input) {
+        CommandType type = CommandType.getCommandType(input.strip().split("\\s+", 2)[0]);
+        if (WINDOW_COMMANDS.contains(type)) {
+            return CommandResult.ofError("The " + type.getKeyword() + " command can only be run from the window.");
+        }
+        return trackerBot.handleCommand(input);
+    }
+
+    private void runOnOwner(HttpExchange exchange, Supplier<String> action) throws IOException {
+        String json;
+        try {
+            json = CompletableFuture.supplyAsync(action, ownerExecutor).get(OWNER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "The server is shutting down.");
+            return;
+        } catch (TimeoutException e) {
+            sendError(exchange, 503, "TrackerBot is busy. Please try again later.");
+            return;
+        } catch (ExecutionException e) {
+            sendError(exchange, 500, "The request failed: " + e.getCause());
+            return;
+        }
+        send(exchange, 200, json);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        Json.appendString(json, message);
+        send(exchange, status, json.append('}').toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+}
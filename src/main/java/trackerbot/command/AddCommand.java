@@ -1,7 +1,10 @@
 package trackerbot.command;
 
+import java.util.ArrayList;
+
 import trackerbot.exception.TrackerBotException;
 import trackerbot.gui.UiHandler;
+import trackerbot.task.Task;
 import trackerbot.task.TaskList;
 import trackerbot.utils.Parser;
 
@@ -17,7 +20,7 @@ class AddCommand extends Command {
     @Override
     public void execute(TaskList tasks, UiHandler uiHandler) {
         try {
-            uiHandler.setMessage(tasks.addTask(type, commandField));
+            uiHandler.setResult(tasks.addTask(type, commandField));
         } catch (TrackerBotException e) {
             uiHandler.setError(e.getMessage());
         }
@@ -26,14 +29,12 @@ class AddCommand extends Command {
     @Override
     public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) {
         String[] commandFields = Parser.parseMassOpFields(commandField);
-        StringBuilder successLog = new StringBuilder("We have successfully added the following tasks:");
-        StringBuilder errorLog = new StringBuilder("We have failed to parse the following commands:");
+        ArrayList<CommandResult> results = new ArrayList<>(commandFields.length);
+        StringBuilder errorLog = new StringBuilder();
 
         for (int i = 0; i < commandFields.length; i++) {
             try {
-                String successStr = tasks.addTask(type, commandFields[i].trim());
-                successLog.append("\n");
-                successLog.append(successStr);
+                results.add(tasks.addTask(type, commandFields[i].trim()));
             } catch (TrackerBotException e) {
                 errorLog.append("\n");
                 errorLog.append("Command ");
@@ -43,8 +44,16 @@ class AddCommand extends Command {
             }
         }
 
-        successLog.append("\n\n");
-        successLog.append(errorLog);
-        uiHandler.setMessage(successLog.toString());
+        ArrayList<Task> addedTasks = new ArrayList<>(results.size());
+        results.forEach(added -> addedTasks.addAll(added.getTasks()));
+        CommandResult result = new CommandResult(addedTasks, tasks.getSize(), errorLog, () -> {
+            StringBuilder successLog = new StringBuilder("We have successfully added the following tasks:");
+            for (CommandResult added : results) {
+                successLog.append("\n");
+                successLog.append(added.getText());
+            }
+            return successLog.append("\n\n").toString();
+        });
+        uiHandler.setResult(result.withErrors("We have failed to parse the following commands:", errorLog));
     }
 }
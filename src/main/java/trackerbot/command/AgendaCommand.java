@@ -0,0 +1,42 @@
+package trackerbot.command;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.gui.UiHandler;
+import trackerbot.task.TaskList;
+
+class AgendaCommand extends Command {
+    /** Number of tasks shown when no count is given. */
+    private static final int DEFAULT_COUNT = 5;
+
+    private final String commandField;
+
+    AgendaCommand(String commandField) {
+        this.commandField = commandField;
+    }
+
+    @Override
+    public void execute(TaskList tasks, UiHandler uiHandler) {
+        int count;
+        try {
+            count = commandField.trim().equals("") ? DEFAULT_COUNT : Integer.parseInt(commandField.trim());
+        } catch (NumberFormatException e) {
+            count = -1;
+        }
+        if (count <= 0) {
+            uiHandler.setError("Invalid format: agenda [number of tasks]");
+            return;
+        }
+
+        uiHandler.setMessage(tasks.listAgenda(count));
+    }
+
+    @Override
+    public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
+        throw new TrackerBotException("Agenda command cannot be executed as a mass operation.");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
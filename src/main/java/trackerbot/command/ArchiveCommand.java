@@ -0,0 +1,47 @@
+package trackerbot.command;
+
+import java.time.LocalDateTime;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.gui.UiHandler;
+import trackerbot.task.TaskList;
+import trackerbot.utils.Storage;
+
+class ArchiveCommand extends Command {
+    private final String commandField;
+
+    ArchiveCommand(String commandField) {
+        this.commandField = commandField;
+    }
+
+    @Override
+    public void execute(TaskList tasks, UiHandler uiHandler) {
+        try {
+            uiHandler.setMessage(Storage.archive(tasks, getCutoff(commandField.trim())));
+            uiHandler.requestSave();
+        } catch (TrackerBotException e) {
+            uiHandler.setError(e.getMessage());
+        }
+    }
+
+    @Override
+    public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
+        throw new TrackerBotException("Archive command cannot be executed as a mass operation.");
+    }
+
+    private LocalDateTime getCutoff(String daysField) throws TrackerBotException {
+        if (daysField.equals("")) {
+            return null;
+        }
+
+        try {
+            int days = Integer.parseInt(daysField);
+            if (days < 0) {
+                throw new NumberFormatException();
+            }
+            return LocalDateTime.now().minusDays(days);
+        } catch (NumberFormatException e) {
+            throw new TrackerBotException("Invalid format: archive [days since task date]");
+        }
+    }
+}
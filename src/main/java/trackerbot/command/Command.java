@@ -31,6 +31,17 @@ public abstract class Command {
      */
     public abstract void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException;
 
+    /**
+     * Checks if the command leaves the Task List unchanged.
+     * <p>Only these commands are run while TrackerBot is following another TrackerBot, as the
+     * Task List of a follower is only changed by replication.</p>
+     *
+     * @return true, if the command never changes the Task List, and false otherwise.
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
     /**
      * Constructs a subtype of Command from the given keyword and command fields.
      * <p>Depending on the keyword passed in, the method will generate an
@@ -38,10 +49,18 @@ public abstract class Command {
      * these subtypes:</p>
      * <ul>
      *     <li>AddCommand, to add Tasks into the Tracker.</li>
+     *     <li>ImportCommand, to add Tasks into the Tracker from a file.</li>
      *     <li>DeleteCommand, to remove Tasks from the Tracker.</li>
      *     <li>ToggleCommand, to mark/unmark Tasks.</li>
      *     <li>FindCommand, to find all Tasks matching a substring.</li>
      *     <li>ListCommand, to display Tasks in the Tracker.</li>
+     *     <li>StatsCommand, to summarise Tasks in the Tracker.</li>
+     *     <li>UpcomingCommand, to display the Tasks coming up soon.</li>
+     *     <li>AgendaCommand, to display the Tasks that are due first.</li>
+     *     <li>ConflictsCommand, to display the Events that overlap.</li>
+     *     <li>ArchiveCommand, to move completed Tasks out of the Tracker into the archive.</li>
+     *     <li>PromoteCommand, to stop following another Tracker.</li>
+     *     <li>UseCommand, to show or switch the workspace in use.</li>
      *     <li>ExitCommand, to tell the Tracker to exit.</li>
      *     <li>UnknownCommand, which will throw an error on execute.</li>
      * </ul>
@@ -61,6 +80,8 @@ public abstract class Command {
         case DEADLINE:
             // Fallthrough
         case EVENT:
+            // Fallthrough
+        case RECUR:
             result = new AddCommand(keyword, commandField);
             break;
         case DELETE:
@@ -75,7 +96,31 @@ public abstract class Command {
             result = new FindCommand(commandField);
             break;
         case LIST:
-            result = new ListCommand();
+            result = new ListCommand(commandField);
+            break;
+        case STATS:
+            result = new StatsCommand();
+            break;
+        case IMPORT:
+            result = new ImportCommand(commandField);
+            break;
+        case ARCHIVE:
+            result = new ArchiveCommand(commandField);
+            break;
+        case UPCOMING:
+            result = new UpcomingCommand(commandField);
+            break;
+        case AGENDA:
+            result = new AgendaCommand(commandField);
+            break;
+        case CONFLICTS:
+            result = new ConflictsCommand();
+            break;
+        case PROMOTE:
+            result = new PromoteCommand();
+            break;
+        case USE:
+            result = new UseCommand(commandField);
             break;
         case BYE:
             result = new ExitCommand();
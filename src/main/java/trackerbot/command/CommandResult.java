@@ -0,0 +1,129 @@
+package trackerbot.command;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import trackerbot.task.Task;
+
+/**
+ * Outcome of a command, kept as the Tasks it affected rather than as the reply to the user.
+ * <p>The reply is only rendered the first time getText is called, and is then kept. Callers that only
+ * need to know what changed, such as a replication follower, a batch client or a test, read the Tasks,
+ * counts and errors instead, and never pay to format the reply.</p>
+ * <p>Tasks are rendered as they are when getText is called, not as they were when the command ran,
+ * so the text should be read before the TaskList is changed again.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class CommandResult {
+    private static final String ERROR_PREFIX = "Oh dear.\n";
+
+    private final List<Task> tasks;
+    private final int listSize;
+    private final boolean isError;
+
+    /** The errors of the parts of the command that failed, one per line, each starting with a newline. */
+    private final CharSequence errorLog;
+
+    /** Renders the text, or null once the text is rendered. */
+    private Supplier<String> renderer;
+    private String text;
+
+    /**
+     * Constructs a CommandResult that renders its text on demand.
+     *
+     * @param tasks The Tasks affected by the command, in the order they were affected.
+     * @param listSize The number of Tasks in the list after the command, or -1 if the list was not read.
+     * @param errorLog The errors of the parts of the command that failed, or an empty log if none failed.
+     * @param renderer Renders the reply, on the thread that owns the TaskList.
+     */
+    public CommandResult(List<Task> tasks, int listSize, CharSequence errorLog, Supplier<String> renderer) {
+        this(tasks, listSize, false, errorLog, renderer);
+    }
+
+    private CommandResult(List<Task> tasks, int listSize, boolean isError, CharSequence errorLog,
+            Supplier<String> renderer) {
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.listSize = listSize;
+        this.isError = isError;
+        this.errorLog = errorLog;
+        this.renderer = renderer;
+    }
+
+    /**
+     * Constructs a CommandResult of a command that only replies with a message.
+     *
+     * @param message The reply to the user.
+     * @return A CommandResult with the message as its text.
+     */
+    public static CommandResult ofMessage(String message) {
+        CommandResult result = new CommandResult(List.of(), -1, false, "", null);
+        result.text = message;
+        return result;
+    }
+
+    /**
+     * Constructs a CommandResult of a command that failed.
+     *
+     * @param message The reason the command failed.
+     * @return A CommandResult that is an error, with the message as its text.
+     */
+    public static CommandResult ofError(String message) {
+        CommandResult result = new CommandResult(List.of(), -1, true, message, null);
+        result.text = ERROR_PREFIX + message;
+        return result;
+    }
+
+    /**
+     * Appends the errors of the parts of the command that failed to the result.
+     * <p>The header is shown before the errors in the text, even if there are no errors.</p>
+     *
+     * @param header The line introducing the errors.
+     * @param errors The errors, one per line, each starting with a newline.
+     * @return A CommandResult with the same Tasks and the errors, which renders its text on demand.
+     */
+    public CommandResult withErrors(String header, CharSequence errors) {
+        return new CommandResult(tasks, listSize, isError, errors, () -> getText() + header + errors);
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public int getListSize() {
+        return listSize;
+    }
+
+    public boolean isError() {
+        return isError;
+    }
+
+    /**
+     * Checks if any part of the command failed.
+     *
+     * @return true if the command failed, or any part of a mass operation failed.
+     */
+    public boolean hasErrors() {
+        return isError || errorLog.length() > 0;
+    }
+
+    public CharSequence getErrorLog() {
+        return errorLog;
+    }
+
+    /**
+     * Gets the reply to the user, rendering it on the first call.
+     * <p>This must be called on the thread that owns the TaskList.</p>
+     *
+     * @return The String representation of the result.
+     */
+    public String getText() {
+        if (renderer != null) {
+            text = renderer.get();
+            renderer = null;
+        }
+        return text;
+    }
+}
@@ -1,5 +1,7 @@
 package trackerbot.command;
 
+import trackerbot.utils.CompletionTrie;
+
 /**
  * Enumerates the possible Command types that exist in the Command class.
  * <p>CommandType should directly mirror the number of nested implementations of the
@@ -22,6 +24,8 @@ public enum CommandType {
     DEADLINE("deadline"),
     /** Command to add a new event task to the task list. **/
     EVENT("event"),
+    /** Command to add a new recurring task to the task list. **/
+    RECUR("recur"),
     /** Command to mark a task to be complete. **/
     MARK("mark"),
     /** Command to mark a task as incomplete. **/
@@ -30,9 +34,36 @@ public enum CommandType {
     DELETE("delete"),
     /** Command to search for a task. **/
     FIND("find"),
+    /** Command to summarise the tasks in the task list. **/
+    STATS("stats"),
+    /** Command to add tasks in bulk from a file. **/
+    IMPORT("import"),
+    /** Command to move completed tasks into the archive. **/
+    ARCHIVE("archive"),
+    /** Command to list the tasks coming up soon. **/
+    UPCOMING("upcoming"),
+    /** Command to list the tasks that are due first. **/
+    AGENDA("agenda"),
+    /** Command to list the events that overlap. **/
+    CONFLICTS("conflicts"),
+    /** Command to stop following another TrackerBot and take over from it. **/
+    PROMOTE("promote"),
+    /** Command to switch to another workspace, or show the workspace in use. **/
+    USE("use"),
     /** Command to denote an unknown keyword call. **/
     UNKNOWN("");
 
+    /** Radix tree of the keywords of every CommandType, for completing keywords as they are typed. */
+    private static final CompletionTrie KEYWORDS = new CompletionTrie();
+
+    static {
+        for (CommandType command : CommandType.values()) {
+            if (!command.keyword.isEmpty()) {
+                KEYWORDS.add(command.keyword);
+            }
+        }
+    }
+
     /** The String representation of the enum. Used to parse the command into enum. **/
     private final String keyword;
 
@@ -70,4 +101,14 @@ public enum CommandType {
         }
         return result;
     }
+
+    /**
+     * Completes the start of a keyword to the first keyword, in alphabetical order, that starts with it.
+     *
+     * @param prefix The start of the keyword.
+     * @return The completed keyword, or null if no keyword starts with the prefix.
+     */
+    public static String complete(String prefix) {
+        return KEYWORDS.complete(prefix);
+    }
 }
@@ -0,0 +1,24 @@
+package trackerbot.command;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.gui.UiHandler;
+import trackerbot.task.TaskList;
+
+class ConflictsCommand extends Command {
+    ConflictsCommand() {}
+
+    @Override
+    public void execute(TaskList tasks, UiHandler uiHandler) {
+        uiHandler.setMessage(tasks.listConflicts());
+    }
+
+    @Override
+    public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
+        throw new TrackerBotException("Conflicts command cannot be executed as a mass operation.");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
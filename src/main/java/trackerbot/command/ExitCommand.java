@@ -16,4 +16,9 @@ class ExitCommand extends Command {
     public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
         throw new TrackerBotException("Exit command cannot be executed as a mass operation.");
     }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
@@ -1,10 +1,20 @@
 package trackerbot.command;
 
+import trackerbot.exception.TrackerBotException;
 import trackerbot.gui.UiHandler;
+import trackerbot.task.TaskArchive;
 import trackerbot.task.TaskList;
+import trackerbot.task.TaskQuery;
 import trackerbot.utils.Parser;
+import trackerbot.utils.Storage;
 
 class FindCommand extends Command {
+    /** Prefix of a query that requests a fuzzy, ranked search. */
+    private static final String FUZZY_PREFIX = "~";
+
+    /** Prefix of a query that searches the archive instead of the Task List. */
+    private static final String ARCHIVE_PREFIX = "--archive";
+
     private final String commandField;
 
     FindCommand(String commandFields) {
@@ -13,7 +23,11 @@ class FindCommand extends Command {
 
     @Override
     public void execute(TaskList tasks, UiHandler uiHandler) {
-        uiHandler.setMessage(tasks.findAll(commandField.trim()));
+        try {
+            uiHandler.setMessage(search(tasks, commandField.trim()));
+        } catch (TrackerBotException e) {
+            uiHandler.setError(e.getMessage());
+        }
     }
 
     @Override
@@ -25,9 +39,39 @@ class FindCommand extends Command {
             successLog.append("\n\n");
             successLog.append(searchStr.trim());
             successLog.append(":\n");
-            successLog.append(tasks.findAll(searchStr.trim()));
+            try {
+                successLog.append(search(tasks, searchStr.trim()));
+            } catch (TrackerBotException e) {
+                successLog.append(e.getMessage());
+            }
         }
 
         uiHandler.setMessage(successLog.toString());
     }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    private String search(TaskList tasks, String searchStr) throws TrackerBotException {
+        if (searchStr.startsWith(ARCHIVE_PREFIX)) {
+            return searchArchive(tasks, searchStr.substring(ARCHIVE_PREFIX.length()).trim());
+        }
+        if (searchStr.startsWith(FUZZY_PREFIX)) {
+            return tasks.findFuzzy(searchStr.substring(FUZZY_PREFIX.length()));
+        }
+        if (TaskQuery.isStructured(searchStr)) {
+            return tasks.findAll(TaskQuery.compile(searchStr));
+        }
+        return tasks.findAll(searchStr);
+    }
+
+    private String searchArchive(TaskList tasks, String searchStr) throws TrackerBotException {
+        TaskArchive archive = Storage.readArchive(tasks.getWorkspace());
+        if (TaskQuery.isStructured(searchStr)) {
+            return archive.findAll(TaskQuery.compile(searchStr));
+        }
+        return archive.findAll(searchStr);
+    }
 }
@@ -0,0 +1,39 @@
+package trackerbot.command;
+
+import java.util.List;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.gui.UiHandler;
+import trackerbot.task.Task;
+import trackerbot.task.TaskList;
+import trackerbot.utils.Storage;
+
+class ImportCommand extends Command {
+    private final String commandField;
+
+    ImportCommand(String commandField) {
+        this.commandField = commandField;
+    }
+
+    @Override
+    public void execute(TaskList tasks, UiHandler uiHandler) {
+        if (commandField.trim().equals("")) {
+            uiHandler.setError("Invalid format: import [path to csv/tsv file]");
+            return;
+        }
+
+        StringBuilder errorLog = new StringBuilder();
+        try {
+            List<Task> importedTasks = Storage.readImport(commandField.trim(), errorLog);
+            uiHandler.setResult(tasks.addTasks(importedTasks)
+                    .withErrors("\n\nWe have failed to import the following rows:", errorLog));
+        } catch (TrackerBotException e) {
+            uiHandler.setError(e.getMessage());
+        }
+    }
+
+    @Override
+    public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
+        throw new TrackerBotException("Import command cannot be executed as a mass operation.");
+    }
+}
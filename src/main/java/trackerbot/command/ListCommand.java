@@ -2,18 +2,62 @@ package trackerbot.command;
 
 import trackerbot.exception.TrackerBotException;
 import trackerbot.gui.UiHandler;
+import trackerbot.task.Task;
 import trackerbot.task.TaskList;
+import trackerbot.utils.Parser;
 
 class ListCommand extends Command {
-    ListCommand() {}
+    /** Prefix of the field that lists the Tasks in a sorted order. */
+    private static final String SORT_FLAG = "--sort=";
+
+    private final String commandField;
+
+    ListCommand(String commandField) {
+        this.commandField = commandField;
+    }
 
     @Override
     public void execute(TaskList tasks, UiHandler uiHandler) {
-        uiHandler.setMessage(tasks.list());
+        if (commandField.trim().startsWith(SORT_FLAG)) {
+            try {
+                uiHandler.setMessage(tasks.listSorted(commandField.trim().substring(SORT_FLAG.length())));
+            } catch (TrackerBotException e) {
+                uiHandler.setError(e.getMessage());
+            }
+            return;
+        }
+
+        if (commandField.trim().startsWith(Task.TAG_PREFIX)) {
+            try {
+                uiHandler.setMessage(tasks.listByTags(Parser.parseTags(commandField)));
+            } catch (TrackerBotException e) {
+                uiHandler.setError(e.getMessage());
+            }
+            return;
+        }
+
+        switch (commandField.trim()) {
+        case "":
+            uiHandler.setMessage(tasks.list());
+            break;
+        case "done":
+            uiHandler.setMessage(tasks.listByStatus(true));
+            break;
+        case "todo":
+            uiHandler.setMessage(tasks.listByStatus(false));
+            break;
+        default:
+            uiHandler.setError("Invalid format: list [done/todo/#tag.../--sort=due/status/alpha]");
+        }
     }
 
     @Override
     public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
         throw new TrackerBotException("List command cannot be executed as a mass operation.");
     }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
 }
@@ -0,0 +1,20 @@
+package trackerbot.command;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.gui.UiHandler;
+import trackerbot.task.TaskList;
+
+class PromoteCommand extends Command {
+    PromoteCommand() {}
+
+    @Override
+    public void execute(TaskList tasks, UiHandler uiHandler) {
+        // a following TrackerBot handles promote itself, so reaching the Task List means it is not following
+        uiHandler.setError("I am not following another TrackerBot.");
+    }
+
+    @Override
+    public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
+        throw new TrackerBotException("Promote command cannot be executed as a mass operation.");
+    }
+}
@@ -0,0 +1,24 @@
+package trackerbot.command;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.gui.UiHandler;
+import trackerbot.task.TaskList;
+
+class StatsCommand extends Command {
+    StatsCommand() {}
+
+    @Override
+    public void execute(TaskList tasks, UiHandler uiHandler) {
+        uiHandler.setMessage(tasks.getStats());
+    }
+
+    @Override
+    public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
+        throw new TrackerBotException("Stats command cannot be executed as a mass operation.");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package trackerbot.command;
+
+import java.time.LocalDateTime;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.gui.UiHandler;
+import trackerbot.task.TaskList;
+
+class UpcomingCommand extends Command {
+    /** Number of days shown when no window is given. */
+    private static final int DEFAULT_DAYS = 7;
+
+    private final String commandField;
+
+    UpcomingCommand(String commandField) {
+        this.commandField = commandField;
+    }
+
+    @Override
+    public void execute(TaskList tasks, UiHandler uiHandler) {
+        int days;
+        try {
+            days = commandField.trim().equals("") ? DEFAULT_DAYS : Integer.parseInt(commandField.trim());
+        } catch (NumberFormatException e) {
+            days = -1;
+        }
+        if (days <= 0) {
+            uiHandler.setError("Invalid format: upcoming [number of days]");
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        uiHandler.setMessage(tasks.listUpcoming(now, now.plusDays(days)));
+    }
+
+    @Override
+    public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
+        throw new TrackerBotException("Upcoming command cannot be executed as a mass operation.");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
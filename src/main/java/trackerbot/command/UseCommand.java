@@ -0,0 +1,39 @@
+package trackerbot.command;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.gui.UiHandler;
+import trackerbot.task.TaskList;
+import trackerbot.utils.Parser;
+
+class UseCommand extends Command {
+    private final String commandField;
+
+    UseCommand(String commandField) {
+        this.commandField = commandField;
+    }
+
+    @Override
+    public void execute(TaskList tasks, UiHandler uiHandler) {
+        if (!commandField.isBlank()) {
+            // TrackerBot owns the workspaces, so it makes the switch once the command returns
+            try {
+                uiHandler.requestWorkspace(Parser.parseWorkspaceName(commandField));
+            } catch (TrackerBotException e) {
+                uiHandler.setError(e.getMessage());
+            }
+            return;
+        }
+        uiHandler.setMessage("You are working in the " + tasks.getWorkspace() + " workspace, with "
+                + tasks.getSize() + " task(s) on my list.");
+    }
+
+    @Override
+    public void executeAsMassOp(TaskList tasks, UiHandler uiHandler) throws TrackerBotException {
+        throw new TrackerBotException("Use command cannot be executed as a mass operation.");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return commandField.isBlank();
+    }
+}
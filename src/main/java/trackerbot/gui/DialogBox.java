@@ -1,35 +1,41 @@
 package trackerbot.gui;
 
-import java.io.IOException;
-import java.util.Collections;
+import java.util.IdentityHashMap;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.HBox;
-import javafx.scene.shape.Circle;
+import javafx.scene.layout.Region;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face and a label
  * containing text from the speaker.
  * <p>Skeleton code from the JavaFX tutorial provided.</p>
+ * <p>A dialog box is appended for every message, so it is built in code, rather than by loading
+ * FXML for each message, which costs reflection and XML parsing every time. The avatar is cut
+ * into a circle once per image, and every dialog box with that avatar shows the same round image,
+ * rather than clipping its own copy with a clip of its own.</p>
  *
  * @version Level-10
  */
 public class DialogBox extends HBox {
+    /** Size the avatar is scaled to, in pixels. */
+    private static final double AVATAR_SIZE = 99.0;
+
+    /** The avatars cut into circles, keyed by the original image. Only used on the FX thread. */
+    private static final IdentityHashMap<Image, Image> ROUND_AVATARS = new IdentityHashMap<>();
+
     /** Label for the DialogBox. */
-    @FXML
-    private Label dialog;
+    private final Label dialog;
 
     /** Avatar image for the DialogBox. */
-    @FXML
-    private ImageView displayPicture;
+    private final ImageView displayPicture;
 
     /**
      * Constructs the DialogBox controller object.
@@ -38,34 +44,61 @@ public class DialogBox extends HBox {
      * @param img The image of the avatar.
      */
     private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        dialog = new Label(text);
+        dialog.setWrapText(true);
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
+        displayPicture = new ImageView(getRoundAvatar(img));
+        displayPicture.setFitWidth(AVATAR_SIZE);
+        displayPicture.setFitHeight(AVATAR_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
 
-        Circle circleClip = new Circle(
-                displayPicture.getLayoutX() + displayPicture.getFitWidth() / 2,
-                displayPicture.getLayoutY() + displayPicture.getFitHeight() / 2,
-                displayPicture.getFitWidth() / 2
-        );
+        setAlignment(Pos.CENTER_RIGHT);
+        setSpacing(5.0);
+        setPadding(new Insets(15.0, 5.0, 15.0, 5.0));
+        setMinHeight(Region.USE_PREF_SIZE);
+        setMaxHeight(Double.MAX_VALUE);
+        setMaxWidth(Double.MAX_VALUE);
+        setPrefWidth(400.0);
+        getChildren().addAll(dialog, displayPicture);
+    }
 
-        displayPicture.setClip(circleClip);
+    /**
+     * Gets the avatar cut into the circle inscribed in the image, cutting it on first use.
+     * <p>Pixels on the edge of the circle are partly transparent, so the edge stays smooth.</p>
+     *
+     * @param img The image of the avatar.
+     * @return The round avatar, or the image as it is if its pixels cannot be read.
+     */
+    private static Image getRoundAvatar(Image img) {
+        return ROUND_AVATARS.computeIfAbsent(img, image -> {
+            PixelReader reader = image.getPixelReader();
+            if (reader == null) {
+                return image;
+            }
+            int width = (int) image.getWidth();
+            int height = (int) image.getHeight();
+            WritableImage roundImage = new WritableImage(width, height);
+            PixelWriter writer = roundImage.getPixelWriter();
+            double radius = Math.min(width, height) / 2.0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    double distance = Math.hypot(x + 0.5 - width / 2.0, y + 0.5 - height / 2.0);
+                    double coverage = Math.max(0, Math.min(1, radius - distance + 0.5));
+                    int argb = reader.getArgb(x, y);
+                    int alpha = (int) Math.round((argb >>> 24) * coverage);
+                    writer.setArgb(x, y, (alpha << 24) | (argb & 0xFFFFFF));
+                }
+            }
+            return roundImage;
+        });
     }
 
     /**
      * Flips the dialog box such that the ImageView is on the left and text on the right.
      */
     private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
+        getChildren().setAll(displayPicture, dialog);
         setAlignment(Pos.CENTER_LEFT);
     }
 
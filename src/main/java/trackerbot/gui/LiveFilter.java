@@ -0,0 +1,123 @@
+package trackerbot.gui;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import trackerbot.TrackerBot;
+import trackerbot.task.IncrementalSearch;
+
+/**
+ * Filters the Task List as the user types into the filter field, showing the matches in place of the dialog.
+ * <p>Keystrokes are debounced, so a search only starts once the user pauses. Searches run on a
+ * single background thread, narrowing the matches of the last search where they can. A search is
+ * cancelled as soon as a newer query starts, and its matches are never shown. The FX thread only
+ * takes the snapshot of the descriptions, which TaskList keeps up to date, and renders the first
+ * matches, so it is never blocked by a search.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see IncrementalSearch
+ */
+class LiveFilter {
+    /** How long the user must pause typing before the query is searched. */
+    private static final Duration DEBOUNCE_DELAY = Duration.millis(150);
+
+    /** Maximum number of matches shown, as rendering every match of a short query would block the FX thread. */
+    private static final int SHOWN_MATCH_LIMIT = 500;
+
+    private final TextField filterInput;
+    private final ListView<String> filterResults;
+    private final PauseTransition debounce = new PauseTransition(DEBOUNCE_DELAY);
+
+    /** Background thread running the searches, one at a time. */
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TrackerBot-filter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Number of the latest query, so older searches can tell that they are stale. */
+    private final AtomicLong latestQuery = new AtomicLong();
+
+    private TrackerBot trackerBot;
+
+    /**
+     * Constructs a LiveFilter, which shows the matches of the filter field in the results list.
+     * <p>This must be called on the FX thread. The results list is hidden while the filter field is empty.</p>
+     *
+     * @param filterInput The field the user types the filter into.
+     * @param filterResults The list to show the matches in.
+     */
+    LiveFilter(TextField filterInput, ListView<String> filterResults) {
+        this.filterInput = filterInput;
+        this.filterResults = filterResults;
+        debounce.setOnFinished(event -> refresh());
+        filterInput.textProperty().addListener((observable, oldText, newText) -> debounce.playFromStart());
+        showResults(false);
+    }
+
+    void setTrackerBot(TrackerBot trackerBot) {
+        this.trackerBot = trackerBot;
+    }
+
+    /**
+     * Searches the Task List for the current filter, replacing the matches shown.
+     * <p>This is also called after each command, as the command may have changed the list. While the filter
+     * is empty, the list is not read at all.</p>
+     */
+    void refresh() {
+        long query = latestQuery.incrementAndGet();
+        String filter = filterInput.getText();
+        if (filter.isEmpty() || trackerBot == null) {
+            showResults(false);
+            return;
+        }
+        IncrementalSearch search = trackerBot.getIncrementalSearch();
+        if (search == null) {
+            showResults(false);
+            return;
+        }
+
+        searcher.execute(() -> {
+            int[] matches = search.search(filter, () -> latestQuery.get() != query);
+            if (matches != null) {
+                Platform.runLater(() -> show(query, search, matches));
+            }
+        });
+    }
+
+    /**
+     * Shows the matches of a search, if its query is still the latest and no Task was added or removed since.
+     */
+    private void show(long query, IncrementalSearch search, int[] matches) {
+        if (latestQuery.get() != query) {
+            return;
+        }
+        if (trackerBot.getIncrementalSearch() != search) {
+            // positions in an older snapshot may point at other Tasks now
+            refresh();
+            return;
+        }
+
+        List<String> lines = search.render(matches, SHOWN_MATCH_LIMIT);
+        if (matches.length == 0) {
+            lines.add("No tasks match your filter.");
+        } else if (matches.length > SHOWN_MATCH_LIMIT) {
+            lines.add("... and " + (matches.length - SHOWN_MATCH_LIMIT) + " more. Type more to narrow them down.");
+        }
+        filterResults.getItems().setAll(lines);
+        showResults(true);
+    }
+
+    private void showResults(boolean isShown) {
+        filterResults.setVisible(isShown);
+        filterResults.setManaged(isShown);
+    }
+}
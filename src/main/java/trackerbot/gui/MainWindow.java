@@ -2,9 +2,14 @@ package trackerbot.gui;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.IndexRange;
+import javafx.scene.control.ListView;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
+import javafx.scene.control.TextFormatter;
 import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.VBox;
 import trackerbot.TrackerBot;
@@ -30,6 +35,14 @@ public class MainWindow extends AnchorPane {
     @FXML
     private TextField userInput;
 
+    /** Text Field to filter the Task List as the user types. */
+    @FXML
+    private TextField filterInput;
+
+    /** List showing the Tasks matching the filter, in place of the dialog, while there is a filter. */
+    @FXML
+    private ListView<String> filterResults;
+
     /** Button to send user input to program. */
     @FXML
     private Button sendButton;
@@ -37,6 +50,12 @@ public class MainWindow extends AnchorPane {
     /** TrackerBot instance, serving as a backend. */
     private TrackerBot trackerBot;
 
+    /** Searches the Task List for the filter as the user types it. */
+    private LiveFilter liveFilter;
+
+    /** Position in the user input where the suggested completion starts, or -1 if there is none. */
+    private int suggestionStart = -1;
+
     /** User image of TrackerBot, referenced by DialogBox. */
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/User.png"));
 
@@ -46,6 +65,53 @@ public class MainWindow extends AnchorPane {
     @FXML
     public void initialize() {
         scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        liveFilter = new LiveFilter(filterInput, filterResults);
+        userInput.setTextFormatter(new TextFormatter<>(this::suggestCompletion));
+        userInput.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.TAB && getSuggestedLength() > 0) {
+                // accepting the suggestion keeps it, and Tab no longer moves the focus away
+                userInput.end();
+                event.consume();
+            }
+        });
+    }
+
+    /**
+     * Suggests a completion of the last word as the user types at the end of the input.
+     * <p>The suggestion is appended to the typed text and selected, so typing on replaces it,
+     * Backspace deletes it, and Tab accepts it.</p>
+     *
+     * @param change The change to the input, before it is applied.
+     * @return The change, with the suggestion appended if there is one.
+     */
+    private TextFormatter.Change suggestCompletion(TextFormatter.Change change) {
+        boolean isTypedAtEnd = change.isAdded() && change.getRangeEnd() == change.getControlText().length();
+        if (change.isContentChange()) {
+            suggestionStart = -1;
+        }
+        if (trackerBot == null || !isTypedAtEnd) {
+            return change;
+        }
+        String typed = change.getControlNewText();
+        String suggestion = trackerBot.getCompletion(typed);
+        if (!suggestion.isEmpty()) {
+            change.setText(change.getText() + suggestion);
+            change.selectRange(typed.length() + suggestion.length(), typed.length());
+            suggestionStart = typed.length();
+        }
+        return change;
+    }
+
+    /**
+     * Gets the length of the suggested completion that has not been accepted yet.
+     *
+     * @return The length of the suggestion, if it is still selected, and 0 otherwise.
+     */
+    private int getSuggestedLength() {
+        IndexRange selection = userInput.getSelection();
+        boolean isSuggestionSelected = selection.getStart() == suggestionStart
+                && selection.getEnd() == userInput.getLength();
+        return isSuggestionSelected ? selection.getLength() : 0;
     }
 
     /**
@@ -56,24 +122,40 @@ public class MainWindow extends AnchorPane {
      */
     public void setTrackerBot(TrackerBot bot) {
         trackerBot = bot;
+        liveFilter.setTrackerBot(bot);
         dialogContainer.getChildren().add(
                 DialogBox.getBotDialog(trackerBot.getLastMessage(), botImage)
         );
     }
 
+    /**
+     * Appends a reply from TrackerBot that was not prompted by the latest user input,
+     * such as the result of loading the save file.
+     *
+     * @param message The message to display.
+     */
+    public void addBotMessage(String message) {
+        dialogContainer.getChildren().add(DialogBox.getBotDialog(message, botImage));
+        // the list may have just finished loading, or changed through a queued command
+        liveFilter.refresh();
+    }
+
     /**
      * Creates two dialog boxes, one echoing user input and the other containing
      * TrackerBot's reply and then appends them to the dialog container.
-     * <p>Clears the user input after processing.</p>
+     * <p>A suggested completion that was not accepted is left out of the input.
+     * Clears the user input after processing.</p>
      */
     @FXML
     private void handleUserInput() {
-        String input = userInput.getText();
+        String text = userInput.getText();
+        String input = text.substring(0, text.length() - getSuggestedLength());
         String response = trackerBot.handleInput(input);
         dialogContainer.getChildren().addAll(
                 DialogBox.getUserDialog(input, userImage),
                 DialogBox.getBotDialog(response, botImage)
         );
         userInput.clear();
+        liveFilter.refresh();
     }
 }
@@ -4,6 +4,8 @@ import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.util.Duration;
 
+import trackerbot.command.CommandResult;
+
 /**
  * Generates UI elements for TrackerBot.
  *
@@ -14,8 +16,14 @@ public class UiHandler {
     /** Name of the app. **/
     private final String appName;
 
-    /** Stores the last known message from the app. */
-    private String uiMessage;
+    /** Stores the result of the last command, or the last known message from the app. */
+    private CommandResult uiResult;
+
+    /** The name of the workspace the last command asked to switch to, or null if it did not ask. */
+    private String requestedWorkspace;
+
+    /** Whether the last command asked for the workspace in use to be saved. */
+    private boolean isSaveRequested;
 
     /**
      * Constructs a UIHandler object for the class.
@@ -39,8 +47,8 @@ public class UiHandler {
      */
     public static UiHandler instantiate(String appName) {
         UiHandler uiHandler = new UiHandler(appName);
-        uiHandler.uiMessage = "Greetings from " + uiHandler.appName + "!\n"
-                + "How may I assist?";
+        uiHandler.uiResult = CommandResult.ofMessage("Greetings from " + uiHandler.appName + "!\n"
+                + "How may I assist?");
         return uiHandler;
     }
 
@@ -50,34 +58,96 @@ public class UiHandler {
      * @param message The error message to display.
      */
     public void setError(String message) {
-        uiMessage = "Oh dear.\n" + message;
+        uiResult = CommandResult.ofError(message);
+    }
+
+    /**
+     * Sets the message to be a reminder of an upcoming Task.
+     *
+     * @param index The index of the Task in the list, starting from 1.
+     * @param task The String representation of the Task.
+     */
+    public void setReminder(int index, String task) {
+        uiResult = CommandResult.ofMessage("Just a reminder, this task is coming up soon:\n" + index + ". " + task);
     }
 
     /**
      * Sets the message to be the exit message.
      */
     public void exitApp() {
-        uiMessage = "Thank you for using " + appName + ". Goodbye.";
+        uiResult = CommandResult.ofMessage("Thank you for using " + appName + ". Goodbye.");
         PauseTransition delay = new PauseTransition(Duration.seconds(0.5));
         delay.setOnFinished(e -> Platform.exit());
         delay.play();
     }
 
+    /**
+     * Asks TrackerBot to switch to the workspace once the command returns.
+     *
+     * @param name The name of the workspace, as parsed by Parser.parseWorkspaceName.
+     */
+    public void requestWorkspace(String name) {
+        requestedWorkspace = name;
+    }
+
+    /**
+     * Gets the workspace the last command asked to switch to, and clears the request.
+     *
+     * @return The name of the workspace, or null if no switch was asked for.
+     */
+    public String takeRequestedWorkspace() {
+        String name = requestedWorkspace;
+        requestedWorkspace = null;
+        return name;
+    }
+
+    /**
+     * Asks TrackerBot to save the workspace in use once the command returns.
+     */
+    public void requestSave() {
+        isSaveRequested = true;
+    }
+
+    /**
+     * Checks if the last command asked for the workspace in use to be saved, and clears the request.
+     *
+     * @return true if a save was asked for.
+     */
+    public boolean takeSaveRequest() {
+        boolean isRequested = isSaveRequested;
+        isSaveRequested = false;
+        return isRequested;
+    }
+
     /**
      * Sets the message in UiHandler.
      *
      * @param message The status message to display.
      */
     public void setMessage(String message) {
-        uiMessage = message;
+        uiResult = CommandResult.ofMessage(message);
+    }
+
+    /**
+     * Sets the result of a command in UiHandler.
+     * <p>The result is only rendered into a message once getMessage is called.</p>
+     *
+     * @param result The result of the command.
+     */
+    public void setResult(CommandResult result) {
+        uiResult = result;
+    }
+
+    public CommandResult getResult() {
+        return uiResult;
     }
 
     /**
-     * Gets the message in UiHandler.
+     * Gets the message in UiHandler, rendering the result of the last command if it is not yet rendered.
      *
      * @return The String representation of the message in UiHandler.
      */
     public String getMessage() {
-        return uiMessage;
+        return uiResult.getText();
     }
 }
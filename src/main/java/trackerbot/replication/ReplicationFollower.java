@@ -0,0 +1,254 @@
+package trackerbot.replication;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongConsumer;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.task.TaskList;
+import trackerbot.utils.Storage;
+
+/**
+ * Applies the changes streamed by a ReplicationPrimary to a Task List of its own, as a hot standby.
+ * <p>A reader thread receives the stream and hands the records over to the thread that owns the
+ * Task List in batches, so the Task List stays confined to its owner thread. At most
+ * MAX_PENDING_BATCHES batches wait on the owner thread at once. Beyond that, the reader stops
+ * reading, which in turn slows the primary down to the pace of the follower.</p>
+ * <p>If the connection drops, or a change cannot be applied, the follower reconnects, and
+ * starts again from a new snapshot. Once promoted, it stops following, and its Task List
+ * is left as it was after the last change applied.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see ReplicationPrimary
+ */
+public class ReplicationFollower {
+    /** Maximum number of records handed over to the owner thread at once. */
+    private static final int BATCH_LIMIT = 4096;
+
+    /** Maximum number of batches waiting on the owner thread at once. */
+    private static final int MAX_PENDING_BATCHES = 4;
+
+    /** How long to wait before connecting again after the connection drops. */
+    private static final long RECONNECT_DELAY_MILLIS = 500;
+
+    private final TaskList tasks;
+    private final Executor ownerExecutor;
+    private final LongConsumer lagListener;
+    private final Semaphore pendingBatches = new Semaphore(MAX_PENDING_BATCHES);
+    private volatile boolean isFollowing;
+    private volatile Socket socket;
+
+    /** Sequence number of the last change applied, which is only written on the owner thread. */
+    private volatile long appliedSequence = 0;
+
+    /**
+     * Constructs a ReplicationFollower, without connecting it.
+     *
+     * @param tasks The Task List to apply the changes to, which is replaced by the first snapshot.
+     * @param ownerExecutor The executor of the thread that owns the Task List.
+     * @param lagListener Receives the time between each change being sent and applied, in
+     *                    microseconds, on the owner thread.
+     */
+    public ReplicationFollower(TaskList tasks, Executor ownerExecutor, LongConsumer lagListener) {
+        this.tasks = tasks;
+        this.ownerExecutor = ownerExecutor;
+        this.lagListener = lagListener;
+    }
+
+    /**
+     * Starts following the primary on the loopback address, connecting again whenever the connection drops.
+     *
+     * @param port The port of the primary.
+     */
+    public void start(int port) {
+        isFollowing = true;
+        Thread reader = new Thread(() -> follow(port), "TrackerBot-follower");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Stops following the primary, so that the Task List can be changed directly.
+     * <p>This must be called on the owner thread. Changes received but not yet applied are dropped.</p>
+     */
+    public void promote() {
+        isFollowing = false;
+        closeSocket();
+    }
+
+    /**
+     * Gets the sequence number of the last change applied to the Task List.
+     *
+     * @return The sequence number, in the change feed of the primary.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Gets the current time in microseconds, which timestamps the records of the stream.
+     *
+     * @return The microseconds since the epoch.
+     */
+    static long getNowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1000;
+    }
+
+    private void follow(int port) {
+        while (isFollowing) {
+            try (Socket connection = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                socket = connection;
+                if (!isFollowing) {
+                    return;
+                }
+                receive(new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                // the primary is not up yet, or the connection dropped, so connect again
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the stream, handing each snapshot and each batch of changes to the owner thread.
+     *
+     * @param input The stream from the primary.
+     */
+    private void receive(BufferedReader input) throws IOException, InterruptedException {
+        String record = input.readLine();
+        while (record != null) {
+            if (record.charAt(0) == 'S') {
+                receiveSnapshot(record, input);
+                record = input.readLine();
+                continue;
+            }
+
+            // batch the changes that have already arrived, up to the next snapshot
+            List<String> batch = new ArrayList<>();
+            batch.add(record);
+            record = null;
+            while (batch.size() < BATCH_LIMIT && input.ready()) {
+                String next = input.readLine();
+                if (next.charAt(0) == 'S') {
+                    record = next;
+                    break;
+                }
+                batch.add(next);
+            }
+            handOver(() -> applyChanges(batch));
+            if (record == null) {
+                record = input.readLine();
+            }
+        }
+    }
+
+    private void receiveSnapshot(String header, BufferedReader input) throws IOException, InterruptedException {
+        String[] fields = header.split(" ", 4);
+        long sequence = Long.parseLong(fields[1]);
+        int lineCount = Integer.parseInt(fields[3]);
+        List<String> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(input.readLine());
+        }
+        handOver(() -> applySnapshot(sequence, lines));
+    }
+
+    private void handOver(Runnable apply) throws InterruptedException {
+        pendingBatches.acquire();
+        ownerExecutor.execute(() -> {
+            try {
+                apply.run();
+            } finally {
+                pendingBatches.release();
+            }
+        });
+    }
+
+    private void applySnapshot(long sequence, List<String> lines) {
+        if (!isFollowing) {
+            return;
+        }
+        tasks.clear();
+        try {
+            for (String line : lines) {
+                Storage.importSaveLine(line, tasks);
+            }
+        } catch (TrackerBotException e) {
+            closeSocket();
+            return;
+        }
+        appliedSequence = sequence;
+    }
+
+    private void applyChanges(List<String> records) {
+        if (!isFollowing) {
+            return;
+        }
+        try {
+            for (String record : records) {
+                applyChange(record);
+            }
+        } catch (TrackerBotException | RuntimeException e) {
+            // the Task List no longer matches the primary, so start again from a new snapshot
+            closeSocket();
+        }
+    }
+
+    private void applyChange(String record) throws TrackerBotException {
+        String[] fields = record.split(" ", 4);
+        char type = record.charAt(0);
+        long sequence = Long.parseLong(fields[1]);
+        long sentMicros = Long.parseLong(fields[2]);
+        String payload = fields[3];
+        switch (type) {
+        case 'A':
+            Storage.importSaveLine(payload, tasks);
+            break;
+        case 'D':
+            tasks.deleteTask(tasks.getIndexOfId(Integer.parseInt(payload)));
+            break;
+        case 'M':
+            tasks.markTask(tasks.getIndexOfId(Integer.parseInt(payload)));
+            break;
+        case 'U':
+            tasks.unmarkTask(tasks.getIndexOfId(Integer.parseInt(payload)));
+            break;
+        case 'H':
+            return;
+        default:
+            throw new TrackerBotException("Unknown replication record: " + record);
+        }
+        appliedSequence = sequence;
+        lagListener.accept(getNowMicros() - sentMicros);
+    }
+
+    private void closeSocket() {
+        Socket current = socket;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+}
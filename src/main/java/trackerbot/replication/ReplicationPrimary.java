@@ -0,0 +1,254 @@
+package trackerbot.replication;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import trackerbot.TrackerBot;
+import trackerbot.exception.TrackerBotException;
+import trackerbot.task.ChangeEvent;
+import trackerbot.task.ChangeFeed;
+
+/**
+ * Streams the changes to the Task List of a TrackerBot to following TrackerBots over local sockets.
+ * <p>Each follower that connects is first sent a snapshot of the Task List in the save format,
+ * taken on the owner thread along with the sequence number of the change feed at that moment.
+ * From then on, it is sent every change after that sequence number, in order, read from the
+ * change feed by a shipping thread of its own. Reading the feed is lock-free, so shipping
+ * never waits on or slows down the owner thread.</p>
+ * <p>If a follower falls so far behind that the feed no longer has the changes it needs, or the
+ * Task List is replaced, the follower is sent a new snapshot, and carries on from there.</p>
+ * <p>The stream is made of lines, each record being "TYPE SEQUENCE SENT_MICROS PAYLOAD":</p>
+ * <ul>
+ *     <li>S, with the number of lines of the snapshot as payload, followed by those lines.</li>
+ *     <li>A, with the save string of an added Task as payload.</li>
+ *     <li>D, M and U, with the ID of a deleted, marked or unmarked Task as payload.</li>
+ *     <li>H, without payload, sent when there have been no changes for a while.</li>
+ * </ul>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see ReplicationFollower
+ */
+public class ReplicationPrimary {
+    /** Maximum number of changes read from the feed and written before a flush. */
+    private static final int BATCH_LIMIT = 4096;
+
+    /** Longest wait between polls of the feed, when there are no changes. */
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** How long without changes before a heartbeat is sent. */
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final TrackerBot trackerBot;
+    private final ChangeFeed feed;
+    private final Executor ownerExecutor;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private ServerSocket serverSocket;
+    private volatile boolean isRunning;
+
+    /**
+     * Constructs a ReplicationPrimary over the TrackerBot, without starting it.
+     *
+     * @param trackerBot The TrackerBot to replicate.
+     * @param ownerExecutor The executor of the thread that owns the TrackerBot, such as the UI thread.
+     */
+    public ReplicationPrimary(TrackerBot trackerBot, Executor ownerExecutor) {
+        this.trackerBot = trackerBot;
+        this.feed = trackerBot.getChangeFeed();
+        this.ownerExecutor = ownerExecutor;
+    }
+
+    /**
+     * Starts accepting followers on the loopback address.
+     *
+     * @param port The port to listen on, or 0 to pick any free port.
+     * @throws IOException if the port cannot be bound.
+     */
+    public void start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        isRunning = true;
+        startDaemon(this::acceptFollowers, "TrackerBot-replication");
+    }
+
+    /**
+     * Gets the port that followers connect to.
+     *
+     * @return The bound port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops replicating, disconnecting every follower.
+     */
+    public void stop() {
+        isRunning = false;
+        closeQuietly(serverSocket);
+        followers.forEach(ReplicationPrimary::closeQuietly);
+    }
+
+    private void acceptFollowers() {
+        while (isRunning) {
+            try {
+                Socket socket = serverSocket.accept();
+                followers.add(socket);
+                startDaemon(() -> ship(socket), "TrackerBot-replication-" + socket.getPort());
+            } catch (IOException e) {
+                // the server socket was closed by stop
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends the snapshot and then every change to the follower, until either side stops.
+     *
+     * @param socket The connection to the follower.
+     */
+    private void ship(Socket socket) {
+        try (Writer output = new BufferedWriter(
+                new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16)) {
+            socket.setTcpNoDelay(true);
+            long after = sendSnapshot(output);
+            long idleNanos = 0;
+            long lastSentNanos = System.nanoTime();
+            while (isRunning) {
+                List<ChangeEvent> events;
+                try {
+                    events = feed.read(after, BATCH_LIMIT);
+                } catch (TrackerBotException e) {
+                    after = sendSnapshot(output);
+                    continue;
+                }
+
+                if (events.isEmpty()) {
+                    if (System.nanoTime() - lastSentNanos > HEARTBEAT_NANOS) {
+                        writeRecord(output, 'H', after, "");
+                        output.flush();
+                        lastSentNanos = System.nanoTime();
+                    }
+                    // back off gradually, so a burst of changes is picked up quickly but an idle feed costs little
+                    idleNanos = Math.min(Math.max(idleNanos * 2, 1000), MAX_IDLE_NANOS);
+                    LockSupport.parkNanos(idleNanos);
+                    continue;
+                }
+
+                idleNanos = 0;
+                for (ChangeEvent event : events) {
+                    if (event.getType() == ChangeEvent.Type.RESET) {
+                        after = sendSnapshot(output);
+                        break;
+                    }
+                    writeEvent(output, event);
+                    after = event.getSequence();
+                }
+                output.flush();
+                lastSentNanos = System.nanoTime();
+            }
+        } catch (IOException e) {
+            // the follower disconnected, or the primary was stopped
+        } finally {
+            followers.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the Task List on the owner thread, and sends it to the follower.
+     *
+     * @param output The stream to the follower.
+     * @return The sequence number of the change feed that the snapshot is up to date with.
+     * @throws IOException if the follower disconnects, or the snapshot cannot be taken.
+     */
+    private long sendSnapshot(Writer output) throws IOException {
+        Snapshot snapshot;
+        try {
+            // the feed only changes on the owner thread, so the snapshot and the sequence number match
+            snapshot = CompletableFuture.supplyAsync(
+                    () -> new Snapshot(feed.subscribe(), trackerBot.exportSave()), ownerExecutor).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while taking a snapshot.");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to take a snapshot: " + e.getCause());
+        }
+
+        long lineCount = snapshot.save.chars().filter(c -> c == '\n').count();
+        writeRecord(output, 'S', snapshot.sequence, String.valueOf(lineCount));
+        output.write(snapshot.save);
+        output.flush();
+        return snapshot.sequence;
+    }
+
+    private static void writeEvent(Writer output, ChangeEvent event) throws IOException {
+        switch (event.getType()) {
+        case ADDED:
+            writeRecord(output, 'A', event.getSequence(), event.getSaveString());
+            break;
+        case REMOVED:
+            writeRecord(output, 'D', event.getSequence(), String.valueOf(event.getId()));
+            break;
+        case MARKED:
+            writeRecord(output, 'M', event.getSequence(), String.valueOf(event.getId()));
+            break;
+        case UNMARKED:
+            writeRecord(output, 'U', event.getSequence(), String.valueOf(event.getId()));
+            break;
+        default:
+            throw new IllegalStateException("Unknown change type: " + event.getType());
+        }
+    }
+
+    private static void writeRecord(Writer output, char type, long sequence, String payload) throws IOException {
+        output.write(type);
+        output.write(' ');
+        output.write(Long.toString(sequence));
+        output.write(' ');
+        output.write(Long.toString(ReplicationFollower.getNowMicros()));
+        output.write(' ');
+        output.write(payload);
+        output.write('\n');
+    }
+
+    private static void startDaemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // already closed
+        }
+    }
+
+    /**
+     * Snapshot of the Task List, with the sequence number it is up to date with.
+     */
+    private static class Snapshot {
+        private final long sequence;
+        private final String save;
+
+        private Snapshot(long sequence, String save) {
+            this.sequence = sequence;
+            this.save = save;
+        }
+    }
+}
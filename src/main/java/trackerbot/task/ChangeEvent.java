@@ -0,0 +1,79 @@
+package trackerbot.task;
+
+/**
+ * Immutable record of a single change to a TaskList, as published through its ChangeFeed.
+ * <p>The position of a Task is its index in the list at the time of the change, starting
+ * from 1, so a subscriber that applies the events in order can keep its own copy of the
+ * list without reading it again.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see ChangeFeed
+ */
+public class ChangeEvent {
+    /**
+     * The kinds of change to a TaskList.
+     */
+    public enum Type {
+        /** A Task was appended at the position. */
+        ADDED,
+        /** The Task at the position was removed, shifting the later Tasks down by one. */
+        REMOVED,
+        /** The Task at the position was marked as completed. */
+        MARKED,
+        /** The Task at the position was marked as incomplete. */
+        UNMARKED,
+        /** The whole list was cleared or replaced, so subscribers must read it again. */
+        RESET
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final int id;
+    private final int position;
+
+    /** The save string of the added Task, so that the event can be replayed on another list. */
+    private final String saveString;
+
+    /**
+     * Constructs a ChangeEvent.
+     *
+     * @param sequence The sequence number of the event in its feed.
+     * @param type The kind of change.
+     * @param id The ID of the changed Task, or 0 for a RESET.
+     * @param position The index of the changed Task, starting from 1, or 0 for a RESET.
+     * @param saveString The save string of the added Task for an ADDED, or null otherwise.
+     */
+    ChangeEvent(long sequence, Type type, int id, int position, String saveString) {
+        this.sequence = sequence;
+        this.type = type;
+        this.id = id;
+        this.position = position;
+        this.saveString = saveString;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public String getSaveString() {
+        return saveString;
+    }
+
+    @Override
+    public String toString() {
+        return sequence + " " + type + " #" + id + " @" + position;
+    }
+}
@@ -0,0 +1,108 @@
+package trackerbot.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import trackerbot.exception.TrackerBotException;
+
+/**
+ * Bounded, lock-free feed of the changes made to a TaskList, for subscribers that keep
+ * their own views of the list up to date incrementally.
+ * <p>Events are numbered from 1 and kept in a ring buffer of the most recent events. The
+ * TaskList is the only writer, on the thread that owns it. It stores each event into its
+ * slot and then publishes the new sequence number through a volatile write, so subscribers
+ * on any thread can read the feed without locks, and never block the writer.</p>
+ * <p>A subscriber resumes from the last sequence number it has seen. If it falls so far behind
+ * that the events after that number have been overwritten, its read fails, and it must read
+ * the whole list again. Events are immutable and carry their own sequence number, so an event
+ * overwritten during a read is detected, rather than returned in place of the expected one.</p>
+ * <p>Nothing is recorded until the first subscriber arrives, so a TaskList that nobody
+ * subscribes to, such as one being loaded, does not allocate an event for every change.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class ChangeFeed {
+    private final AtomicReferenceArray<ChangeEvent> events;
+    private final int mask;
+
+    /** The sequence number of the latest published event, or 0 if none is published. */
+    private volatile long lastSequence = 0;
+
+    /** Whether any subscriber has arrived, and so whether events are recorded. */
+    private volatile boolean isRecording = false;
+
+    /**
+     * Constructs an empty ChangeFeed.
+     *
+     * @param capacity The number of recent events to keep, which must be a power of 2.
+     */
+    public ChangeFeed(int capacity) {
+        assert Integer.bitCount(capacity) == 1 : "capacity should be a power of 2";
+        events = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Starts a subscription to the feed.
+     *
+     * @return The sequence number to resume reading from, which is the latest published event.
+     */
+    public long subscribe() {
+        isRecording = true;
+        return lastSequence;
+    }
+
+    /**
+     * Gets the sequence number of the latest published event.
+     *
+     * @return The latest sequence number, or 0 if no event has been published.
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Reads the events published after the given sequence number, in order.
+     *
+     * @param after The last sequence number that the subscriber has seen.
+     * @param limit The maximum number of events to read.
+     * @return The events after the sequence number, which is empty if the subscriber is up to date.
+     * @throws TrackerBotException if the events after the sequence number are no longer kept,
+     *                             so the subscriber must read the whole list again.
+     */
+    public List<ChangeEvent> read(long after, int limit) throws TrackerBotException {
+        long last = Math.min(lastSequence, after + limit);
+        List<ChangeEvent> result = new ArrayList<>((int) Math.max(last - after, 0));
+        for (long sequence = after + 1; sequence <= last; sequence++) {
+            ChangeEvent event = events.get((int) (sequence & mask));
+            if (event == null || event.getSequence() != sequence) {
+                throw new TrackerBotException("The change feed has moved past #" + after
+                        + ". Please read the whole list again.");
+            }
+            result.add(event);
+        }
+        return result;
+    }
+
+    /**
+     * Publishes a change, if any subscriber has arrived.
+     * <p>This must only be called by the thread that owns the TaskList. An added Task is
+     * published with its save string, which is only built once a subscriber has arrived.</p>
+     *
+     * @param type The kind of change.
+     * @param task The changed Task, or null for a RESET.
+     * @param position The index of the changed Task, starting from 1, or 0 for a RESET.
+     */
+    void publish(ChangeEvent.Type type, Task task, int position) {
+        if (!isRecording) {
+            return;
+        }
+        long sequence = lastSequence + 1;
+        int id = task == null ? 0 : task.getId();
+        String saveString = type == ChangeEvent.Type.ADDED ? task.toSaveString() : null;
+        events.set((int) (sequence & mask), new ChangeEvent(sequence, type, id, position, saveString));
+        lastSequence = sequence;
+    }
+}
@@ -0,0 +1,109 @@
+package trackerbot.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Ordered index over the dates of the dated Tasks in a TaskList.
+ * <p>Tasks are keyed on Task.getDate, so a Deadline is indexed by its deadline and an
+ * Event by its start date. Tasks without a date are not indexed. Tasks on the same date are
+ * ordered by their ID, so they always come out in the order they were added.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+class DateIndex {
+    /** The order of the Tasks on the same date. */
+    private static final Comparator<Task> BY_ID = Comparator.comparingInt(Task::getId);
+
+    /** The dated Tasks, grouped by their date. */
+    private final TreeMap<LocalDateTime, TreeSet<Task>> tasksByDate = new TreeMap<>();
+
+    /**
+     * Adds the Task into the index, if it has a date.
+     *
+     * @param task The Task to index.
+     */
+    void add(Task task) {
+        if (task.getDate() == null) {
+            return;
+        }
+        tasksByDate.computeIfAbsent(task.getDate(), k -> new TreeSet<>(BY_ID)).add(task);
+    }
+
+    /**
+     * Removes the Task from the index, if it has a date.
+     *
+     * @param task The Task to remove.
+     */
+    void remove(Task task) {
+        if (task.getDate() == null) {
+            return;
+        }
+        TreeSet<Task> tasksOnDate = tasksByDate.get(task.getDate());
+        if (tasksOnDate == null) {
+            return;
+        }
+        tasksOnDate.remove(task);
+        if (tasksOnDate.isEmpty()) {
+            tasksByDate.remove(task.getDate());
+        }
+    }
+
+    /**
+     * Empties the index.
+     */
+    void clear() {
+        tasksByDate.clear();
+    }
+
+    /**
+     * Counts the Tasks dated strictly between the two bounds, stopping early at the cap.
+     * <p>Counting walks the range, so the cap bounds the cost of estimating a range that is
+     * already known to be larger than some other candidate set.</p>
+     *
+     * @param after The exclusive lower bound, or null if unbounded.
+     * @param before The exclusive upper bound, or null if unbounded.
+     * @param cap The count to stop counting at.
+     * @return The number of Tasks in the range, or cap if there are at least cap Tasks.
+     */
+    int countBetween(LocalDateTime after, LocalDateTime before, int cap) {
+        int count = 0;
+        for (TreeSet<Task> tasksOnDate : getRange(after, before).values()) {
+            count += tasksOnDate.size();
+            if (count >= cap) {
+                return cap;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the Tasks dated strictly between the two bounds, in date order.
+     *
+     * @param after The exclusive lower bound, or null if unbounded.
+     * @param before The exclusive upper bound, or null if unbounded.
+     * @return The Tasks in the range, with the Tasks on the same date in order of ID.
+     */
+    List<Task> getBetween(LocalDateTime after, LocalDateTime before) {
+        ArrayList<Task> result = new ArrayList<>();
+        getRange(after, before).values().forEach(result::addAll);
+        return result;
+    }
+
+    private NavigableMap<LocalDateTime, TreeSet<Task>> getRange(LocalDateTime after, LocalDateTime before) {
+        NavigableMap<LocalDateTime, TreeSet<Task>> range = tasksByDate;
+        if (after != null) {
+            range = range.tailMap(after, false);
+        }
+        if (before != null) {
+            range = range.headMap(before, false);
+        }
+        return range;
+    }
+}
@@ -44,9 +44,29 @@ public class Deadline extends Task {
         by = TaskDateHandler.convertSaveToDate(args[2]);
     }
 
+    @Override
+    public String getTypeFlag() {
+        return "D";
+    }
+
+    /**
+     * Gets the deadline of the Deadline.
+     *
+     * @return The date that the Deadline is due by.
+     */
+    @Override
+    public LocalDateTime getDate() {
+        return by;
+    }
+
+    @Override
+    protected int getSaveArgCount() {
+        return 3;
+    }
+
     @Override
     public String toSaveString() {
-        return "D|" + getSaveInfo() + "|" + by.toEpochSecond(ZoneOffset.UTC);
+        return "D|" + getSaveInfo() + "|" + by.toEpochSecond(ZoneOffset.UTC) + getSaveId();
     }
 
     /**
@@ -0,0 +1,168 @@
+package trackerbot.task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Indexed binary min-heap of the incomplete dated Tasks in a TaskList, ordered by date.
+ * <p>Tasks are keyed on Task.getDate, so a Deadline is ordered by its deadline and an Event
+ * by its start date, with ties broken by ID. The heap slot of each Task is tracked by its ID,
+ * so a Task can be rescheduled with a new key or removed by its handle in O(log N), without
+ * searching the heap.</p>
+ * <p>The earliest K Tasks are read without changing the heap, by a best-first walk from the
+ * root with a second heap holding the frontier. Only the K Tasks and their children are ever
+ * visited, so the walk costs O(K log K), however many Tasks are in the heap.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see ReminderScheduler
+ */
+class DueQueue {
+    /** The date of each Task, in UTC epoch seconds of the local date-time, in heap order. */
+    private long[] dueTimes = new long[16];
+
+    /** The Tasks, in heap order. */
+    private Task[] heapTasks = new Task[16];
+
+    /** Heap slot of each Task, keyed by its ID. */
+    private final IdSlotMap heapSlots = new IdSlotMap();
+
+    private int size = 0;
+
+    /**
+     * Adds the Task into the heap, or moves it to match its current date and status.
+     * <p>Completed Tasks and Tasks without a date are removed from the heap instead.</p>
+     *
+     * @param task The Task to add, which must already have an ID.
+     */
+    void update(Task task) {
+        LocalDateTime date = task.getDate();
+        if (task.isDone() || date == null) {
+            remove(task);
+            return;
+        }
+
+        int slot = heapSlots.get(task.getId());
+        if (slot == -1) {
+            if (size == dueTimes.length) {
+                dueTimes = Arrays.copyOf(dueTimes, size * 2);
+                heapTasks = Arrays.copyOf(heapTasks, size * 2);
+            }
+            slot = size++;
+        }
+        place(slot, date.toEpochSecond(ZoneOffset.UTC), task);
+        // the key may have moved either way, so the Task is sifted up, then down from wherever it stopped
+        siftUp(slot);
+        siftDown(heapSlots.get(task.getId()));
+    }
+
+    /**
+     * Removes the Task from the heap, if it is in the heap.
+     *
+     * @param task The Task to remove.
+     */
+    void remove(Task task) {
+        int slot = heapSlots.get(task.getId());
+        if (slot == -1) {
+            return;
+        }
+        heapSlots.remove(task.getId());
+        size--;
+        Task last = heapTasks[size];
+        heapTasks[size] = null;
+        if (slot != size) {
+            place(slot, dueTimes[size], last);
+            siftUp(slot);
+            siftDown(heapSlots.get(last.getId()));
+        }
+    }
+
+    /**
+     * Removes every Task from the heap.
+     */
+    void clear() {
+        Arrays.fill(heapTasks, 0, size, null);
+        heapSlots.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the Tasks with the earliest dates, without removing them.
+     *
+     * @param count The maximum number of Tasks to get.
+     * @return Up to count Tasks, in date order.
+     */
+    List<Task> getEarliest(int count) {
+        ArrayList<Task> result = new ArrayList<>(Math.min(count, size));
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((a, b) -> isBefore(a, b) ? -1 : 1);
+        if (size > 0) {
+            frontier.add(0);
+        }
+        while (result.size() < count && !frontier.isEmpty()) {
+            int slot = frontier.poll();
+            result.add(heapTasks[slot]);
+            // a child is never earlier than its parent, so it is only a candidate once its parent is taken
+            if (2 * slot + 1 < size) {
+                frontier.add(2 * slot + 1);
+            }
+            if (2 * slot + 2 < size) {
+                frontier.add(2 * slot + 2);
+            }
+        }
+        return result;
+    }
+
+    private boolean isBefore(int slot, int other) {
+        if (dueTimes[slot] != dueTimes[other]) {
+            return dueTimes[slot] < dueTimes[other];
+        }
+        return heapTasks[slot].getId() < heapTasks[other].getId();
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (!isBefore(slot, parent)) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            if (left < size && isBefore(left, smallest)) {
+                smallest = left;
+            }
+            if (right < size && isBefore(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int slot, int other) {
+        long dueTime = dueTimes[slot];
+        Task task = heapTasks[slot];
+        place(slot, dueTimes[other], heapTasks[other]);
+        place(other, dueTime, task);
+    }
+
+    private void place(int slot, long dueTime, Task task) {
+        dueTimes[slot] = dueTime;
+        heapTasks[slot] = task;
+        heapSlots.put(task.getId(), slot);
+    }
+}
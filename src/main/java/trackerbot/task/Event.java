@@ -62,11 +62,42 @@ public class Event extends Task {
         assert to.isAfter(from) : "start date should be earlier than end date";
     }
 
+    @Override
+    public String getTypeFlag() {
+        return "E";
+    }
+
+    /**
+     * Gets the start date of the Event.
+     *
+     * @return The date that the Event starts from.
+     */
+    @Override
+    public LocalDateTime getDate() {
+        return from;
+    }
+
+    /**
+     * Gets the end date of the Event.
+     *
+     * @return The date that the Event ends on.
+     */
+    @Override
+    public LocalDateTime getEndDate() {
+        return to;
+    }
+
+    @Override
+    protected int getSaveArgCount() {
+        return 4;
+    }
+
     @Override
     public String toSaveString() {
         return "E|" + getSaveInfo() + "|"
                 + from.toEpochSecond(ZoneOffset.UTC) + "|"
-                + to.toEpochSecond(ZoneOffset.UTC);
+                + to.toEpochSecond(ZoneOffset.UTC)
+                + getSaveId();
     }
 
     /**
@@ -0,0 +1,211 @@
+package trackerbot.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Trigram index over the words in Task descriptions, for ranked fuzzy search.
+ * <p>Every distinct, case-folded word in a description is broken into padded trigrams.
+ * A query word is scored against the indexed words sharing at least one trigram with it,
+ * using the Dice coefficient of the two trigram sets, so small typos still score highly.</p>
+ * <p>The index is keyed on Task identity rather than list position, as positions shift
+ * whenever a Task is deleted.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+class FuzzyIndex {
+    /** Minimum Dice coefficient for an indexed word to count as a match to a query word. */
+    private static final double MIN_WORD_SCORE = 0.3;
+
+    /** Maps each trigram to the indexed words containing it. */
+    private final HashMap<String, HashSet<String>> trigramToWords = new HashMap<>();
+
+    /** Maps each indexed word to the Tasks containing it. */
+    private final HashMap<String, HashSet<Task>> wordToTasks = new HashMap<>();
+
+    /** Caches the trigram count of each indexed word, for scoring. */
+    private final HashMap<String, Integer> wordTrigramCount = new HashMap<>();
+
+    /**
+     * Adds the words of the Task description into the index.
+     *
+     * @param task The Task to index.
+     */
+    void add(Task task) {
+        for (String word : getWords(task.getDescription())) {
+            HashSet<Task> postings = wordToTasks.get(word);
+            if (postings == null) {
+                postings = new HashSet<>();
+                wordToTasks.put(word, postings);
+                HashSet<String> trigrams = getTrigrams(word);
+                wordTrigramCount.put(word, trigrams.size());
+                for (String trigram : trigrams) {
+                    trigramToWords.computeIfAbsent(trigram, k -> new HashSet<>()).add(word);
+                }
+            }
+            postings.add(task);
+        }
+    }
+
+    /**
+     * Removes the words of the Task description from the index.
+     * <p>Words that are no longer referenced by any Task are dropped along with their trigrams.</p>
+     *
+     * @param task The Task to remove.
+     */
+    void remove(Task task) {
+        for (String word : getWords(task.getDescription())) {
+            HashSet<Task> postings = wordToTasks.get(word);
+            if (postings == null) {
+                continue;
+            }
+            postings.remove(task);
+            if (!postings.isEmpty()) {
+                continue;
+            }
+            wordToTasks.remove(word);
+            wordTrigramCount.remove(word);
+            for (String trigram : getTrigrams(word)) {
+                HashSet<String> words = trigramToWords.get(trigram);
+                words.remove(word);
+                if (words.isEmpty()) {
+                    trigramToWords.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Empties the index.
+     */
+    void clear() {
+        trigramToWords.clear();
+        wordToTasks.clear();
+        wordTrigramCount.clear();
+    }
+
+    /**
+     * Gets the Tasks with an indexed word containing the fragment.
+     * <p>Every Task whose description contains the fragment, ignoring case, is returned,
+     * as long as the fragment has no characters that split words.</p>
+     *
+     * @param fragment The case-folded fragment of a word to look up.
+     * @return The Set of Tasks with a word containing the fragment.
+     */
+    Set<Task> getTasksWithWordContaining(String fragment) {
+        HashSet<Task> result = new HashSet<>();
+        for (Map.Entry<String, HashSet<Task>> entry : wordToTasks.entrySet()) {
+            if (entry.getKey().contains(fragment)) {
+                result.addAll(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the best matching Tasks for the query, ranked by score.
+     * <p>Each query word contributes the score of its best matching word in the
+     * description, and only the top results are kept in a bounded min-heap, so the
+     * ranking cost depends on the limit rather than on the number of matches.</p>
+     *
+     * @param query The search query, which may contain multiple words.
+     * @param limit The maximum number of Tasks to return.
+     * @return The matching Tasks, from the highest score to the lowest.
+     */
+    List<Task> search(String query, int limit) {
+        HashMap<Task, Double> taskScores = new HashMap<>();
+        for (String queryWord : getWords(query)) {
+            HashMap<Task, Double> bestForWord = new HashMap<>();
+            for (Map.Entry<String, Double> match : matchWord(queryWord).entrySet()) {
+                for (Task task : wordToTasks.get(match.getKey())) {
+                    bestForWord.merge(task, match.getValue(), Math::max);
+                }
+            }
+            bestForWord.forEach((task, score) -> taskScores.merge(task, score, Double::sum));
+        }
+
+        PriorityQueue<Map.Entry<Task, Double>> topResults = new PriorityQueue<>(
+                (a, b) -> Double.compare(a.getValue(), b.getValue()));
+        for (Map.Entry<Task, Double> entry : taskScores.entrySet()) {
+            if (topResults.size() < limit) {
+                topResults.add(entry);
+            } else if (limit > 0 && entry.getValue() > topResults.peek().getValue()) {
+                topResults.poll();
+                topResults.add(entry);
+            }
+        }
+
+        ArrayList<Task> result = new ArrayList<>();
+        while (!topResults.isEmpty()) {
+            result.add(0, topResults.poll().getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Scores every indexed word sharing a trigram with the query word.
+     *
+     * @param queryWord The case-folded query word.
+     * @return The indexed words scoring above MIN_WORD_SCORE, mapped to their score.
+     */
+    private HashMap<String, Double> matchWord(String queryWord) {
+        HashSet<String> queryTrigrams = getTrigrams(queryWord);
+        HashMap<String, Integer> sharedCounts = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            HashSet<String> words = trigramToWords.get(trigram);
+            if (words == null) {
+                continue;
+            }
+            for (String word : words) {
+                sharedCounts.merge(word, 1, Integer::sum);
+            }
+        }
+
+        HashMap<String, Double> scores = new HashMap<>();
+        sharedCounts.forEach((word, shared) -> {
+            double score = 2.0 * shared / (queryTrigrams.size() + wordTrigramCount.get(word));
+            if (score >= MIN_WORD_SCORE) {
+                scores.put(word, score);
+            }
+        });
+        return scores;
+    }
+
+    /**
+     * Splits the text into its distinct, case-folded words.
+     *
+     * @param text The text to split.
+     * @return The Set of words in the text.
+     */
+    static HashSet<String> getWords(String text) {
+        HashSet<String> words = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Breaks the word into trigrams, padded so that short words still produce trigrams.
+     *
+     * @param word The word to break up.
+     * @return The Set of trigrams in the word.
+     */
+    private static HashSet<String> getTrigrams(String word) {
+        String padded = "  " + word + " ";
+        HashSet<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,115 @@
+package trackerbot.task;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from Task IDs to their position in a TaskList.
+ * <p>Keys and values are stored in parallel int arrays with linear probing, so lookups
+ * do not box either side. Key 0 marks an empty slot, which is safe as Task IDs start from 1.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+class IdSlotMap {
+    private static final int EMPTY = 0;
+    private static final int MISSING = -1;
+
+    private int[] keys = new int[16];
+    private int[] values = new int[16];
+    private int size = 0;
+
+    /**
+     * Maps the ID to the position, replacing any existing mapping.
+     *
+     * @param id The ID of the Task, which must be positive.
+     * @param pos The position of the Task, starting from 0.
+     */
+    void put(int id, int pos) {
+        assert id > 0 : "task IDs should be positive";
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int slot = findSlot(id);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = id;
+            size++;
+        }
+        values[slot] = pos;
+    }
+
+    /**
+     * Gets the position mapped to the ID.
+     *
+     * @param id The ID of the Task.
+     * @return The position of the Task, or -1 if the ID is not in the map.
+     */
+    int get(int id) {
+        int slot = findSlot(id);
+        return keys[slot] == EMPTY ? MISSING : values[slot];
+    }
+
+    /**
+     * Removes the mapping of the ID, if any.
+     * <p>Later entries in the same probe run are shifted back, so no tombstones are left.</p>
+     *
+     * @param id The ID of the Task.
+     */
+    void remove(int id) {
+        int slot = findSlot(id);
+        if (keys[slot] == EMPTY) {
+            return;
+        }
+        keys[slot] = EMPTY;
+        size--;
+
+        int mask = keys.length - 1;
+        int next = (slot + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            // move the entry back if its home slot is not between the gap and its current slot
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                keys[next] = EMPTY;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties the map.
+     */
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private int findSlot(int id) {
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(int id) {
+        // IDs are sequential, so spread them before masking
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
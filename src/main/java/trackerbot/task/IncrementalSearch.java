@@ -0,0 +1,100 @@
+package trackerbot.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Search-as-you-type over a snapshot of the descriptions in a TaskList.
+ * <p>Matches are found as by TaskList.findAll, so a description matches if it contains the query.
+ * Each search remembers its query and matches. When the next query contains the previous query,
+ * as it does whenever the user types on, only the previous matches can match the next query,
+ * so only they are checked again, rather than every Task in the list.</p>
+ * <p>The descriptions are copied when the IncrementalSearch is created, on the thread that owns
+ * the TaskList, so searches can then run on any other thread, one at a time. The snapshot is
+ * only valid until a Task is added or removed. TaskList then hands out a new IncrementalSearch,
+ * and the positions found by an older one should be discarded rather than rendered.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see TaskList#getIncrementalSearch()
+ */
+public class IncrementalSearch {
+    /** Number of descriptions checked between checks for cancellation. */
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    /** The Tasks of the TaskList, which are only read to render the matches. */
+    private final List<Task> tasks;
+    private final String[] descriptions;
+
+    /** The query of the last completed search, or null if no search has completed. */
+    private String lastQuery = null;
+
+    /** The positions matching the last completed search, in ascending order. */
+    private int[] lastMatches = null;
+
+    /**
+     * Constructs an IncrementalSearch over a snapshot of the descriptions of the Tasks.
+     * <p>This must be called on the thread that owns the TaskList.</p>
+     *
+     * @param tasks The Tasks of the TaskList, in list order.
+     * @param descriptions A copy of the description of each Task, in list order.
+     */
+    IncrementalSearch(List<Task> tasks, String[] descriptions) {
+        this.tasks = tasks;
+        this.descriptions = descriptions;
+    }
+
+    /**
+     * Finds the positions of the descriptions that contain the query.
+     * <p>If the query contains the query of the last completed search, only the last matches
+     * are checked. A cancelled search leaves the last completed search as it was.</p>
+     *
+     * @param query The text to find, which must not be empty.
+     * @param isCancelled Checked every so often, to stop searching for a query that is no longer wanted.
+     * @return The positions of the matching Tasks, starting from 0, in ascending order,
+     *         or null if the search was cancelled. The positions are kept for the next search,
+     *         so they must not be modified.
+     */
+    public synchronized int[] search(String query, BooleanSupplier isCancelled) {
+        boolean isNarrowing = lastQuery != null && query.contains(lastQuery);
+        int candidateCount = isNarrowing ? lastMatches.length : descriptions.length;
+        int[] matches = new int[Math.min(candidateCount, 16)];
+        int matchCount = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && isCancelled.getAsBoolean()) {
+                return null;
+            }
+            int pos = isNarrowing ? lastMatches[i] : i;
+            if (!descriptions[pos].contains(query)) {
+                continue;
+            }
+            if (matchCount == matches.length) {
+                matches = Arrays.copyOf(matches, matchCount * 2);
+            }
+            matches[matchCount++] = pos;
+        }
+
+        lastQuery = query;
+        lastMatches = Arrays.copyOf(matches, matchCount);
+        return lastMatches;
+    }
+
+    /**
+     * Renders the first of the matching Tasks, as they are shown by list.
+     * <p>This must be called on the thread that owns the TaskList, and only while this is still
+     * the IncrementalSearch that the TaskList hands out.</p>
+     *
+     * @param matches The positions of the matching Tasks, from search.
+     * @param limit The maximum number of Tasks to render.
+     * @return Each rendered Task, with its index in the list.
+     */
+    public List<String> render(int[] matches, int limit) {
+        ArrayList<String> lines = new ArrayList<>(Math.min(matches.length, limit));
+        for (int i = 0; i < matches.length && i < limit; i++) {
+            lines.add((matches[i] + 1) + ". " + tasks.get(matches[i]));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,224 @@
+package trackerbot.task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * Interval tree over the periods of the Events in a TaskList.
+ * <p>The tree is a treap ordered by start date, with ties broken by Task ID, where each node
+ * also stores the latest end date in its subtree. Random priorities keep the tree balanced
+ * in expectation, so adding and removing an Event costs O(log N), and finding the K Events
+ * that overlap a period costs O(log N + K), as subtrees that end before the period are skipped.</p>
+ * <p>Periods are half-open, so an Event that ends exactly when another starts does not
+ * overlap it.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+class IntervalTree {
+    private final Random random = new Random();
+    private Node root = null;
+
+    /**
+     * Adds the Event into the tree.
+     *
+     * @param task The Task to add, which must have an end date.
+     */
+    void add(Task task) {
+        Node node = new Node(task, random.nextInt());
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes the Event from the tree, if it is in the tree.
+     *
+     * @param task The Task to remove.
+     */
+    void remove(Task task) {
+        root = delete(root, toSeconds(task.getDate()), task.getId());
+    }
+
+    /**
+     * Empties the tree.
+     */
+    void clear() {
+        root = null;
+    }
+
+    /**
+     * Gets the Events whose period overlaps the given period, in order of start date.
+     *
+     * @param from The start of the period.
+     * @param to The end of the period.
+     * @return The overlapping Events.
+     */
+    List<Task> getOverlapping(LocalDateTime from, LocalDateTime to) {
+        ArrayList<Task> result = new ArrayList<>();
+        collectOverlapping(root, toSeconds(from), toSeconds(to), result);
+        return result;
+    }
+
+    /**
+     * Gets every pair of overlapping Events that satisfy the filter.
+     * <p>This is a sweep over the Events in order of start date, which the tree already
+     * provides. Events still in progress are kept in a min-heap by end date, and each Event
+     * is paired with every Event still in progress when it starts. This costs O(N log N + K)
+     * for N Events and K overlapping pairs.</p>
+     *
+     * @param filter The condition for an Event to be considered, such as being incomplete.
+     * @return The overlapping pairs, with the earlier starting Event first in each pair.
+     */
+    List<Task[]> getOverlappingPairs(Predicate<Task> filter) {
+        ArrayList<Node> byStart = new ArrayList<>();
+        collectInOrder(root, byStart);
+
+        ArrayList<Task[]> result = new ArrayList<>();
+        PriorityQueue<Node> inProgress = new PriorityQueue<>((a, b) -> Long.compare(a.end, b.end));
+        for (Node node : byStart) {
+            if (!filter.test(node.task)) {
+                continue;
+            }
+            while (!inProgress.isEmpty() && inProgress.peek().end <= node.start) {
+                inProgress.poll();
+            }
+            for (Node other : inProgress) {
+                result.add(new Task[] {other.task, node.task});
+            }
+            inProgress.add(node);
+        }
+        return result;
+    }
+
+    private static long toSeconds(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static boolean isBefore(long start, int id, Node node) {
+        return start < node.start || (start == node.start && id < node.task.getId());
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (isBefore(added.start, added.task.getId(), node)) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node delete(Node node, long start, int id) {
+        if (node == null) {
+            return null;
+        }
+        if (start == node.start && id == node.task.getId()) {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // rotate the higher priority child up, then delete the node from below it
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = delete(node.right, start, id);
+            } else {
+                node = rotateLeft(node);
+                node.left = delete(node.left, start, id);
+            }
+        } else if (isBefore(start, id, node)) {
+            node.left = delete(node.left, start, id);
+        } else {
+            node.right = delete(node.right, start, id);
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static void collectOverlapping(Node node, long from, long to, List<Task> result) {
+        if (node == null || node.maxEnd <= from) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        if (node.start >= to) {
+            // every Event in the right subtree starts even later
+            return;
+        }
+        if (node.end > from) {
+            result.add(node.task);
+        }
+        collectOverlapping(node.right, from, to, result);
+    }
+
+    private static void collectInOrder(Node node, List<Node> result) {
+        if (node == null) {
+            return;
+        }
+        collectInOrder(node.left, result);
+        result.add(node);
+        collectInOrder(node.right, result);
+    }
+
+    /**
+     * Node of the treap, holding one Event.
+     */
+    private static class Node {
+        private final Task task;
+        private final long start;
+        private final long end;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(Task task, int priority) {
+            this.task = task;
+            this.start = toSeconds(task.getDate());
+            this.end = toSeconds(task.getEndDate());
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        private void update() {
+            maxEnd = end;
+            if (left != null) {
+                maxEnd = Math.max(maxEnd, left.maxEnd);
+            }
+            if (right != null) {
+                maxEnd = Math.max(maxEnd, right.maxEnd);
+            }
+        }
+    }
+}
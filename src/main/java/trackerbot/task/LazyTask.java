@@ -0,0 +1,158 @@
+package trackerbot.task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import trackerbot.exception.TrackerBotException;
+
+/**
+ * Stand-in for a Task that has not been parsed from its save line yet.
+ * <p>The type, completion status, ID and date are answered from the SaveFileIndex scan, and
+ * so are the tags of a save line without tags. Any
+ * other access parses the save line once, and delegates to the parsed Task from then on.
+ * As the LazyTask itself is what is stored in TaskList, its identity never changes when
+ * it is parsed.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+class LazyTask extends Task {
+    private final SaveFileIndex source;
+    private final int line;
+
+    /** The ID of the Task, if the save line had none and TaskList assigned one. */
+    private int assignedId = 0;
+
+    /** The parsed Task, or null if it has not been parsed yet. */
+    private Task parsed = null;
+
+    LazyTask(SaveFileIndex source, int line) {
+        super("");
+        this.source = source;
+        this.line = line;
+    }
+
+    /**
+     * Parses the save line into a Task, if it has not been parsed yet.
+     * <p>The line was already checked by the SaveFileIndex scan, so parsing it is not
+     * expected to fail.</p>
+     *
+     * @return The parsed Task.
+     */
+    private Task getParsed() {
+        if (parsed != null) {
+            return parsed;
+        }
+        String[] args = source.getLine(line).split("[|]");
+        try {
+            parsed = Task.ofSaveString(args[0], Arrays.copyOfRange(args, 1, args.length));
+        } catch (TrackerBotException e) {
+            throw new IllegalStateException("Save line changed after it was scanned: " + e.getMessage());
+        }
+        parsed.setId(getId());
+        return parsed;
+    }
+
+    @Override
+    public String getTypeFlag() {
+        return String.valueOf(source.getTypeTag(line));
+    }
+
+    @Override
+    public int getId() {
+        return assignedId != 0 ? assignedId : source.getId(line);
+    }
+
+    @Override
+    void setId(int id) {
+        assignedId = id;
+        if (parsed != null) {
+            parsed.setId(id);
+        }
+    }
+
+    @Override
+    public List<String> getTags() {
+        if (parsed == null && !source.hasTags(line)) {
+            return List.of();
+        }
+        return getParsed().getTags();
+    }
+
+    @Override
+    public boolean isDone() {
+        return parsed != null ? parsed.isDone() : source.isDone(line);
+    }
+
+    @Override
+    public LocalDateTime getDate() {
+        if (parsed != null) {
+            return parsed.getDate();
+        }
+        if (source.getTypeTag(line) != 'D' && source.getTypeTag(line) != 'E') {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(source.getDate(line), 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    public LocalDateTime getEndDate() {
+        return getParsed().getEndDate();
+    }
+
+    @Override
+    public LocalDateTime getNextOccurrence(LocalDateTime after) {
+        // only the occurrences of a Recurring task need its rule to be parsed
+        if (source.getTypeTag(line) == 'R') {
+            return getParsed().getNextOccurrence(after);
+        }
+        return super.getNextOccurrence(after);
+    }
+
+    @Override
+    public String getDescription() {
+        return getParsed().getDescription();
+    }
+
+    @Override
+    public void markTask() throws TrackerBotException {
+        getParsed().markTask();
+    }
+
+    @Override
+    public void unmarkTask() throws TrackerBotException {
+        getParsed().unmarkTask();
+    }
+
+    @Override
+    public boolean doesContain(String searchStr) {
+        return getParsed().doesContain(searchStr);
+    }
+
+    @Override
+    protected int getSaveArgCount() {
+        return getParsed().getSaveArgCount();
+    }
+
+    /**
+     * Returns the save string of the Task.
+     * <p>If the Task was never parsed, it is unchanged, so its save line is reused as-is.</p>
+     *
+     * @return The '|' delimited String to store in save file.
+     */
+    @Override
+    public String toSaveString() {
+        if (parsed != null) {
+            return parsed.toSaveString();
+        }
+        String saveLine = source.getLine(line);
+        return source.getId(line) != 0 ? saveLine : saveLine + "|" + getId();
+    }
+
+    @Override
+    public String toString() {
+        return getParsed().toString();
+    }
+}
@@ -0,0 +1,132 @@
+package trackerbot.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.utils.TaskDateHandler;
+
+/**
+ * The Recurring class for TrackerBot, inheriting from the Task class. <br>
+ * <p>This Task child stores a single rule, of a first occurrence and the number of days
+ * between occurrences, in place of one Deadline per occurrence.</p>
+ * <p>Occurrences are never stored. The occurrence after any date is computed directly from
+ * the rule, so listing the occurrences in a window only costs one step per occurrence
+ * in the window.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class Recurring extends Task {
+    /** The date of the first occurrence. **/
+    private final LocalDateTime start;
+
+    /** The number of days between occurrences. **/
+    private final int intervalDays;
+
+    /**
+     * Constructs a Recurring object from the given String input.
+     *
+     * @param desc The description of the Recurring task.
+     * @param every The interval between occurrences, as "day", "week" or a number of days.
+     * @param from The String representation of the first occurrence to parse into a LocalDateTime object.
+     * @throws TrackerBotException if the interval is invalid, or if the first occurrence cannot be
+     *                             parsed by TaskDateHandler.
+     * @see trackerbot.utils.TaskDateHandler#convertInputToDate
+     */
+    public Recurring(String desc, String every, String from) throws TrackerBotException {
+        super(desc);
+        this.intervalDays = parseInterval(every);
+        this.start = TaskDateHandler.convertInputToDate(from);
+    }
+
+    /**
+     * Constructs a Recurring object using a String array, for use in save parsing.
+     *
+     * @param args The arguments for constructing Recurring, containing isDone status in index
+     *             0, description in index 1, an epoch Date string in index 2 and the number of
+     *             days between occurrences in index 3.
+     * @throws TrackerBotException if the first occurrence cannot be parsed by TaskDateHandler,
+     *                             or if the interval in the save string is corrupted.
+     * @see trackerbot.utils.TaskDateHandler#convertSaveToDate
+     */
+    protected Recurring(String[] args) throws TrackerBotException {
+        super(args);
+        start = TaskDateHandler.convertSaveToDate(args[2]);
+        try {
+            intervalDays = Integer.parseInt(args[3]);
+        } catch (NumberFormatException e) {
+            throw new TrackerBotException("Cannot parse interval field.");
+        }
+        if (intervalDays <= 0) {
+            throw new TrackerBotException("Save interval should be positive.");
+        }
+    }
+
+    private static int parseInterval(String every) throws TrackerBotException {
+        switch (every) {
+        case "day":
+            return 1;
+        case "week":
+            return 7;
+        default:
+            try {
+                int days = Integer.parseInt(every);
+                if (days > 0) {
+                    return days;
+                }
+            } catch (NumberFormatException e) {
+                // fallthrough to the error below
+            }
+            throw new TrackerBotException("Invalid interval: /every [day/week/number of days]");
+        }
+    }
+
+    @Override
+    public String getTypeFlag() {
+        return "R";
+    }
+
+    /**
+     * Gets the first occurrence of the Recurring task that is strictly after the given date.
+     * <p>The number of whole intervals to skip is computed directly, so this takes constant time
+     * no matter how far the date is from the first occurrence.</p>
+     *
+     * @param after The exclusive lower bound, or null to get the first occurrence.
+     * @return The next occurrence after the date.
+     */
+    @Override
+    public LocalDateTime getNextOccurrence(LocalDateTime after) {
+        if (after == null || after.isBefore(start)) {
+            return start;
+        }
+        long intervalSeconds = Duration.ofDays(intervalDays).getSeconds();
+        long elapsed = after.toEpochSecond(ZoneOffset.UTC) - start.toEpochSecond(ZoneOffset.UTC);
+        return start.plusDays((elapsed / intervalSeconds + 1) * intervalDays);
+    }
+
+    @Override
+    protected int getSaveArgCount() {
+        return 4;
+    }
+
+    @Override
+    public String toSaveString() {
+        return "R|" + getSaveInfo() + "|" + start.toEpochSecond(ZoneOffset.UTC) + "|" + intervalDays + getSaveId();
+    }
+
+    /**
+     * Returns the String representation of the Recurring task.
+     * <p>This method appends the [R] tag in front of the Task toString, and
+     * the rule to the end of the toString.</p>
+     *
+     * @return "[R]" prefixed to task.toString(), and "(every: [days] day(s), from: [start])"
+     *         postfixed to task.toString().
+     */
+    @Override
+    public String toString() {
+        return "[R]" + super.toString() + " (every: " + intervalDays + " day(s), from: "
+                + TaskDateHandler.convertDateToUi(start) + ")";
+    }
+}
@@ -0,0 +1,225 @@
+package trackerbot.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Schedules a reminder for each incomplete Deadline and Event, shortly before its date.
+ * <p>Pending reminders are kept in a binary min-heap ordered by the time they are due, with
+ * the heap slot of each Task tracked by its ID. A single daemon thread sleeps until the
+ * earliest reminder is due, so there is no thread per reminder and no rescan of the list.
+ * Scheduling, rescheduling and cancelling a reminder each cost O(log N) for N pending reminders.</p>
+ * <p>TaskList keeps the scheduler up to date as Tasks are added, deleted, marked and unmarked.
+ * Reminders for Tasks whose date has already passed are never scheduled.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class ReminderScheduler {
+    private final long leadSeconds;
+    private final Consumer<Task> listener;
+
+    /** The time each pending reminder is due, in epoch seconds, in heap order. */
+    private long[] dueTimes = new long[16];
+
+    /** The Task of each pending reminder, in heap order. */
+    private Task[] heapTasks = new Task[16];
+
+    /** Heap slot of each pending reminder, keyed by the ID of its Task. */
+    private final IdSlotMap heapSlots = new IdSlotMap();
+
+    private int size = 0;
+
+    /** The scheduler thread, or null if it has not been started. */
+    private Thread scheduler;
+
+    /**
+     * Constructs a ReminderScheduler, without starting its thread.
+     *
+     * @param leadTime How long before the date of a Task to send its reminder.
+     * @param listener Receives each Task when its reminder is due, on the scheduler thread.
+     */
+    public ReminderScheduler(Duration leadTime, Consumer<Task> listener) {
+        this.leadSeconds = leadTime.getSeconds();
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the scheduler thread, which sends each reminder to the listener as it comes due.
+     */
+    public void start() {
+        scheduler = new Thread(this::run, "TrackerBot-reminders");
+        scheduler.setDaemon(true);
+        scheduler.start();
+    }
+
+    /**
+     * Stops the scheduler thread, so no more reminders are sent.
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.interrupt();
+        }
+    }
+
+    /**
+     * Schedules the reminder of the Task, replacing its existing reminder, if any.
+     * <p>Completed Tasks, Tasks without a date and Tasks whose date has passed are not
+     * scheduled, and any existing reminder for them is cancelled.</p>
+     *
+     * @param task The Task to remind the user of, which must already have an ID.
+     */
+    public synchronized void schedule(Task task) {
+        LocalDateTime date = task.getDate();
+        if (task.isDone() || date == null || !date.isAfter(LocalDateTime.now())) {
+            cancel(task);
+            return;
+        }
+
+        long dueTime = date.toEpochSecond(ZoneOffset.UTC) - leadSeconds;
+        int slot = heapSlots.get(task.getId());
+        if (slot == -1) {
+            if (size == dueTimes.length) {
+                dueTimes = Arrays.copyOf(dueTimes, size * 2);
+                heapTasks = Arrays.copyOf(heapTasks, size * 2);
+            }
+            slot = size++;
+        }
+        place(slot, dueTime, task);
+        siftUp(slot);
+        siftDown(heapSlots.get(task.getId()));
+        if (heapTasks[0] == task) {
+            // the earliest reminder changed, so the scheduler thread must recompute its wait
+            notifyAll();
+        }
+    }
+
+    /**
+     * Cancels the reminder of the Task, if any.
+     *
+     * @param task The Task to stop reminding the user of.
+     */
+    public synchronized void cancel(Task task) {
+        int slot = heapSlots.get(task.getId());
+        if (slot == -1) {
+            return;
+        }
+        removeAt(slot);
+    }
+
+    /**
+     * Cancels every pending reminder.
+     */
+    public synchronized void clear() {
+        Arrays.fill(heapTasks, 0, size, null);
+        heapSlots.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the number of reminders that have not been sent yet.
+     *
+     * @return The number of pending reminders.
+     */
+    public synchronized int getPendingCount() {
+        return size;
+    }
+
+    private void run() {
+        while (true) {
+            Task dueTask;
+            try {
+                dueTask = takeDue();
+            } catch (InterruptedException e) {
+                return;
+            }
+            listener.accept(dueTask);
+        }
+    }
+
+    /**
+     * Waits until the earliest pending reminder is due, and removes it from the heap.
+     *
+     * @return The Task of the reminder that is due.
+     * @throws InterruptedException if the scheduler thread is interrupted while waiting.
+     */
+    private synchronized Task takeDue() throws InterruptedException {
+        while (true) {
+            if (size == 0) {
+                wait();
+                continue;
+            }
+            long delayMillis = (dueTimes[0] - getNowSeconds()) * 1000;
+            if (delayMillis > 0) {
+                wait(delayMillis);
+                continue;
+            }
+            Task dueTask = heapTasks[0];
+            removeAt(0);
+            return dueTask;
+        }
+    }
+
+    private static long getNowSeconds() {
+        // Task dates are stored as UTC epoch seconds of the local date-time, so now must be too
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private void removeAt(int slot) {
+        heapSlots.remove(heapTasks[slot].getId());
+        size--;
+        Task last = heapTasks[size];
+        heapTasks[size] = null;
+        if (slot != size) {
+            place(slot, dueTimes[size], last);
+            siftUp(slot);
+            siftDown(heapSlots.get(last.getId()));
+        }
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (dueTimes[parent] <= dueTimes[slot]) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            if (left < size && dueTimes[left] < dueTimes[smallest]) {
+                smallest = left;
+            }
+            if (right < size && dueTimes[right] < dueTimes[smallest]) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long dueTime = dueTimes[i];
+        Task task = heapTasks[i];
+        place(i, dueTimes[j], heapTasks[j]);
+        place(j, dueTime, task);
+    }
+
+    private void place(int slot, long dueTime, Task task) {
+        dueTimes[slot] = dueTime;
+        heapTasks[slot] = task;
+        heapSlots.put(task.getId(), slot);
+    }
+}
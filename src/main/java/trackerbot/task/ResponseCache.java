@@ -0,0 +1,92 @@
+package trackerbot.task;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded least-recently-used cache of the rendered responses of read-only TaskList queries.
+ * <p>Each response is stored with the version of the TaskList it was rendered from. A lookup
+ * only hits if the TaskList has not been modified since, so a stale response is never returned,
+ * and no invalidation is needed when the list changes. A hit returns the stored String as is,
+ * which is constant-time no matter how long the response is.</p>
+ * <p>The cache is bounded both by the number of responses and by their total length, evicting
+ * the least recently used responses first. A response longer than the whole budget is not cached.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+class ResponseCache {
+    private final int maxEntries;
+    private final long maxChars;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedChars = 0;
+
+    /**
+     * Constructs an empty ResponseCache.
+     *
+     * @param maxEntries The maximum number of responses to keep.
+     * @param maxChars The maximum total length of the responses to keep.
+     */
+    ResponseCache(int maxEntries, long maxChars) {
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Gets the response to the query at the given version, rendering and caching it on a miss.
+     *
+     * @param key The query, including every parameter that the response depends on.
+     * @param version The current version of the TaskList.
+     * @param render Renders the response from the current TaskList.
+     * @return The response to the query.
+     */
+    String get(String key, long version, Supplier<String> render) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            return entry.response;
+        }
+
+        String response = render.get();
+        if (entry != null) {
+            entries.remove(key);
+            cachedChars -= entry.response.length();
+        }
+        if (response.length() <= maxChars) {
+            entries.put(key, new Entry(version, response));
+            cachedChars += response.length();
+            evict();
+        }
+        return response;
+    }
+
+    /**
+     * Empties the cache.
+     */
+    void clear() {
+        entries.clear();
+        cachedChars = 0;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || cachedChars > maxChars) {
+            cachedChars -= eldest.next().getValue().response.length();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Response rendered at a version of the TaskList.
+     */
+    private static class Entry {
+        private final long version;
+        private final String response;
+
+        private Entry(long version, String response) {
+            this.version = version;
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package trackerbot.task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import trackerbot.exception.TrackerBotException;
+
+/**
+ * Offset index over the raw bytes of a save file, for lazy loading of Tasks.
+ * <p>Building the index is a single sequential scan over the bytes. For each save line,
+ * it records the offset of the line, its type tag, its completion status, its ID, its date and
+ * whether it has tags, and checks that its fields are well-formed, without creating any String
+ * or date object.
+ * The Tasks it returns are only parsed from their line on first use.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see Task#toSaveString()
+ */
+public class SaveFileIndex {
+    /** Prefix of the header line storing the next Task ID, which no save line starts with. */
+    public static final String NEXT_ID_HEADER = "#|";
+
+    private final byte[] data;
+    private int[] lineStarts = new int[16];
+    private int[] lineEnds = new int[16];
+    private byte[] typeTags = new byte[16];
+    private boolean[] doneFlags = new boolean[16];
+    private int[] ids = new int[16];
+    private long[] dates = new long[16];
+    private boolean[] tagFlags = new boolean[16];
+    private int size = 0;
+    private int nextId = 0;
+
+    private SaveFileIndex(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Scans the bytes of a save file into an offset index.
+     *
+     * @param data The bytes of the save file.
+     * @return The offset index over the save lines in the file.
+     * @throws TrackerBotException if any save line is corrupted.
+     */
+    public static SaveFileIndex scan(byte[] data) throws TrackerBotException {
+        SaveFileIndex index = new SaveFileIndex(data);
+        int start = 0;
+        while (start < data.length) {
+            int end = start;
+            while (end < data.length && data[end] != '\n') {
+                end++;
+            }
+            int contentEnd = end > start && data[end - 1] == '\r' ? end - 1 : end;
+            index.scanLine(start, contentEnd);
+            start = end + 1;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the number of save lines in the file, excluding the header.
+     *
+     * @return The number of Tasks in the index.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the next Task ID stored in the header of the save file.
+     *
+     * @return The next ID, or 0 if the save file has no header.
+     */
+    public int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Gets the Task saved on the given line, which is only parsed on first use.
+     *
+     * @param line The index of the save line, starting from 0.
+     * @return The lazily parsed Task.
+     */
+    public Task getTask(int line) {
+        return new LazyTask(this, line);
+    }
+
+    char getTypeTag(int line) {
+        return (char) typeTags[line];
+    }
+
+    boolean isDone(int line) {
+        return doneFlags[line];
+    }
+
+    int getId(int line) {
+        return ids[line];
+    }
+
+    long getDate(int line) {
+        return dates[line];
+    }
+
+    boolean hasTags(int line) {
+        return tagFlags[line];
+    }
+
+    String getLine(int line) {
+        return new String(data, lineStarts[line], lineEnds[line] - lineStarts[line], StandardCharsets.UTF_8);
+    }
+
+    private void scanLine(int start, int end) throws TrackerBotException {
+        if (startsWith(start, end, NEXT_ID_HEADER)) {
+            nextId = (int) parseNumber(start + NEXT_ID_HEADER.length(), end,
+                    "Cannot parse the next ID in the save file.");
+            return;
+        }
+
+        int fieldCount = 1;
+        for (int i = start; i < end; i++) {
+            if (data[i] == '|') {
+                fieldCount++;
+            }
+        }
+        if (end - start < 2 || data[start + 1] != '|') {
+            throw new TrackerBotException("Corrupted save line " + (size + 1) + ".");
+        }
+
+        byte tag = data[start];
+        int argCount;
+        switch (tag) {
+        case 'T':
+            argCount = 2;
+            break;
+        case 'D':
+            argCount = 3;
+            break;
+        case 'E':
+            // Fallthrough
+        case 'R':
+            argCount = 4;
+            break;
+        default:
+            // unlike eager loading, this is reported as an error, as it may happen on the loader thread
+            throw new TrackerBotException("Corrupted save line " + (size + 1) + ": unknown task type.");
+        }
+        // the ID and the tags after it are optional
+        if (fieldCount - 1 < argCount || fieldCount - 1 > argCount + 2) {
+            throw new TrackerBotException("Corrupted save line " + (size + 1) + ": wrong number of fields.");
+        }
+
+        int[] fieldStarts = getFieldStarts(start, end, fieldCount);
+        long date = checkDateFields(tag, fieldStarts, end);
+        int id = 0;
+        if (fieldCount - 1 > argCount) {
+            long parsedId = parseNumber(fieldStarts[argCount + 1], getFieldEnd(fieldStarts, argCount + 1, end),
+                    "Cannot parse ID field.");
+            if (parsedId <= 0 || parsedId > Integer.MAX_VALUE) {
+                throw new TrackerBotException("Task IDs should be positive.");
+            }
+            id = (int) parsedId;
+        }
+
+        append(start, end, tag, data[fieldStarts[1]] == '1', id, date, fieldCount - 1 == argCount + 2);
+    }
+
+    /**
+     * Checks the date fields of the save line.
+     *
+     * @return The epoch second that the Task is dated by, or 0 if the Task has no single date.
+     */
+    private long checkDateFields(byte tag, int[] fieldStarts, int end) throws TrackerBotException {
+        if (tag == 'D') {
+            return parseNumber(fieldStarts[3], getFieldEnd(fieldStarts, 3, end), "Cannot parse time field.");
+        } else if (tag == 'E') {
+            long from = parseNumber(fieldStarts[3], getFieldEnd(fieldStarts, 3, end), "Cannot parse time field.");
+            long to = parseNumber(fieldStarts[4], getFieldEnd(fieldStarts, 4, end), "Cannot parse time field.");
+            if (to <= from) {
+                throw new TrackerBotException("Save date violates time constraints.");
+            }
+            return from;
+        } else if (tag == 'R') {
+            parseNumber(fieldStarts[3], getFieldEnd(fieldStarts, 3, end), "Cannot parse time field.");
+            long interval = parseNumber(fieldStarts[4], getFieldEnd(fieldStarts, 4, end),
+                    "Cannot parse interval field.");
+            if (interval <= 0 || interval > Integer.MAX_VALUE) {
+                throw new TrackerBotException("Save interval should be positive.");
+            }
+        }
+        return 0;
+    }
+
+    private int[] getFieldStarts(int start, int end, int fieldCount) {
+        int[] fieldStarts = new int[fieldCount];
+        int field = 0;
+        fieldStarts[field++] = start;
+        for (int i = start; i < end; i++) {
+            if (data[i] == '|') {
+                fieldStarts[field++] = i + 1;
+            }
+        }
+        return fieldStarts;
+    }
+
+    private static int getFieldEnd(int[] fieldStarts, int field, int end) {
+        return field + 1 < fieldStarts.length ? fieldStarts[field + 1] - 1 : end;
+    }
+
+    /**
+     * Parses a decimal number straight from the bytes, bounded to the range of epoch
+     * seconds that LocalDateTime can represent.
+     */
+    private long parseNumber(int start, int end, String errorMessage) throws TrackerBotException {
+        boolean isNegative = start < end && data[start] == '-';
+        int i = isNegative ? start + 1 : start;
+        if (i == end || end - i > 12) {
+            throw new TrackerBotException(errorMessage);
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            if (data[i] < '0' || data[i] > '9') {
+                throw new TrackerBotException(errorMessage);
+            }
+            result = result * 10 + (data[i] - '0');
+        }
+        return isNegative ? -result : result;
+    }
+
+    private boolean startsWith(int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void append(int start, int end, byte tag, boolean isDone, int id, long date, boolean hasTags) {
+        if (size == lineStarts.length) {
+            int capacity = size * 2;
+            lineStarts = Arrays.copyOf(lineStarts, capacity);
+            lineEnds = Arrays.copyOf(lineEnds, capacity);
+            typeTags = Arrays.copyOf(typeTags, capacity);
+            doneFlags = Arrays.copyOf(doneFlags, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            dates = Arrays.copyOf(dates, capacity);
+            tagFlags = Arrays.copyOf(tagFlags, capacity);
+        }
+        lineStarts[size] = start;
+        lineEnds[size] = end;
+        typeTags[size] = tag;
+        doneFlags[size] = isDone;
+        ids[size] = id;
+        dates[size] = date;
+        tagFlags[size] = hasTags;
+        size++;
+    }
+}
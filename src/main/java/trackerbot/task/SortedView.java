@@ -0,0 +1,127 @@
+package trackerbot.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Cached ordering of the Tasks in a TaskList, kept sorted as the list changes.
+ * <p>The view is sorted once when it is first requested, with a parallel sort for large
+ * lists. From then on, each added Task is inserted at its binary-searched position and each
+ * removed Task is removed from its binary-searched position, so the view is never re-sorted.
+ * Every order breaks ties by Task ID, so each Task has exactly one position in the view.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+class SortedView {
+    /** Key of the order by date, with undated Tasks last. */
+    static final String BY_DUE = "due";
+
+    /** Key of the order by status, with incomplete Tasks first. */
+    static final String BY_STATUS = "status";
+
+    /** Key of the order by description, ignoring case. */
+    static final String BY_ALPHA = "alpha";
+
+    /** Number of Tasks from which the first build uses a parallel sort. */
+    private static final int PARALLEL_SORT_THRESHOLD = 8192;
+
+    /** Number of removed Tasks above which a removal filters the view in one pass. */
+    private static final int BULK_REMOVAL_THRESHOLD = 16;
+
+    private final Comparator<Task> order;
+    private final ArrayList<Task> sorted;
+
+    /**
+     * Constructs a view of the Tasks, sorted in the given order.
+     *
+     * @param order The order to keep the Tasks in, which must not depend on mutable state
+     *              other than the completion status.
+     * @param tasks The Tasks to sort.
+     */
+    SortedView(Comparator<Task> order, List<Task> tasks) {
+        this.order = order;
+        Task[] array = tasks.toArray(new Task[0]);
+        if (array.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(array, order);
+        } else {
+            Arrays.sort(array, order);
+        }
+        sorted = new ArrayList<>(Arrays.asList(array));
+    }
+
+    /**
+     * Gets the order of the given key.
+     *
+     * @param key The key of the order, such as BY_DUE.
+     * @return The order, or null if the key is unknown.
+     */
+    static Comparator<Task> getOrder(String key) {
+        Comparator<Task> byId = Comparator.comparingInt(Task::getId);
+        switch (key) {
+        case BY_DUE:
+            return Comparator.comparing(Task::getDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(byId);
+        case BY_STATUS:
+            return Comparator.comparing(Task::isDone).thenComparing(byId);
+        case BY_ALPHA:
+            return Comparator.comparing(Task::getDescription, String.CASE_INSENSITIVE_ORDER).thenComparing(byId);
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Inserts the Task at its sorted position.
+     *
+     * @param task The Task to insert, which must not already be in the view.
+     */
+    void add(Task task) {
+        int pos = Collections.binarySearch(sorted, task, order);
+        assert pos < 0 : "task should not already be in the view";
+        sorted.add(-pos - 1, task);
+    }
+
+    /**
+     * Removes the Task from its sorted position, if it is in the view.
+     * <p>The Task must still compare the same way as when it was inserted.</p>
+     *
+     * @param task The Task to remove.
+     */
+    void remove(Task task) {
+        int pos = Collections.binarySearch(sorted, task, order);
+        if (pos >= 0) {
+            sorted.remove(pos);
+        }
+    }
+
+    /**
+     * Removes every given Task from the view.
+     * <p>Removing many Tasks filters the view in one pass, rather than shifting the view
+     * once for each Task.</p>
+     *
+     * @param removed The Tasks to remove.
+     */
+    void removeAll(Collection<Task> removed) {
+        if (removed.size() <= BULK_REMOVAL_THRESHOLD) {
+            removed.forEach(this::remove);
+            return;
+        }
+        HashSet<Task> removedSet = new HashSet<>(removed);
+        sorted.removeIf(removedSet::contains);
+    }
+
+    /**
+     * Gets the Tasks in sorted order.
+     *
+     * @return The sorted Tasks, as a read-only list.
+     */
+    List<Task> getTasks() {
+        return Collections.unmodifiableList(sorted);
+    }
+}
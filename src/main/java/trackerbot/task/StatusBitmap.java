@@ -0,0 +1,158 @@
+package trackerbot.task;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Packed bitmap of the completion status of the Tasks in a TaskList, by list position.
+ * <p>Bit i is set if the Task at position i (starting from 0) is done. Positions past the
+ * size of the bitmap are always clear, so counting and iterating over the done and
+ * not-done Tasks only touches one long per 64 Tasks, rather than every Task object.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+class StatusBitmap {
+    private static final int WORD_BITS = 64;
+
+    /** The packed bits, with position i stored in bit (i % 64) of word (i / 64). */
+    private long[] words = new long[1];
+
+    /** The number of positions tracked by the bitmap. */
+    private int size = 0;
+
+    /**
+     * Appends a position to the end of the bitmap.
+     *
+     * @param isDone The status of the Task at the new position.
+     */
+    void append(boolean isDone) {
+        if (size / WORD_BITS >= words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        size++;
+        set(size - 1, isDone);
+    }
+
+    /**
+     * Sets the status of the Task at the position.
+     *
+     * @param pos The position of the Task, starting from 0.
+     * @param isDone The status of the Task.
+     */
+    void set(int pos, boolean isDone) {
+        assert pos >= 0 && pos < size : "position should be within the bitmap";
+        if (isDone) {
+            words[pos / WORD_BITS] |= 1L << pos;
+        } else {
+            words[pos / WORD_BITS] &= ~(1L << pos);
+        }
+    }
+
+    /**
+     * Removes the position from the bitmap, shifting every later position down by one.
+     * <p>This mirrors ArrayList.remove, one word at a time.</p>
+     *
+     * @param pos The position to remove, starting from 0.
+     */
+    void remove(int pos) {
+        assert pos >= 0 && pos < size : "position should be within the bitmap";
+        int wordIndex = pos / WORD_BITS;
+        int lastWord = (size - 1) / WORD_BITS;
+        long word = words[wordIndex];
+        long lowMask = (1L << pos) - 1;
+        long shifted = (word & lowMask) | ((word >>> 1) & ~lowMask);
+        if (wordIndex < lastWord) {
+            shifted |= words[wordIndex + 1] << (WORD_BITS - 1);
+        }
+        words[wordIndex] = shifted;
+
+        for (int i = wordIndex + 1; i <= lastWord; i++) {
+            long next = i < lastWord ? words[i + 1] << (WORD_BITS - 1) : 0;
+            words[i] = (words[i] >>> 1) | next;
+        }
+        size--;
+    }
+
+    /**
+     * Removes every position from the bitmap that is marked in the mask, in one compaction pass.
+     *
+     * @param isRemoved The positions to remove, where bit i marks the position i for removal.
+     */
+    void removeAll(BitSet isRemoved) {
+        int kept = 0;
+        long[] compacted = new long[words.length];
+        for (int i = 0; i < size; i++) {
+            if (isRemoved.get(i)) {
+                continue;
+            }
+            if (get(i)) {
+                compacted[kept / WORD_BITS] |= 1L << kept;
+            }
+            kept++;
+        }
+        words = compacted;
+        size = kept;
+    }
+
+    /**
+     * Empties the bitmap.
+     */
+    void clear() {
+        words = new long[1];
+        size = 0;
+    }
+
+    /**
+     * Gets the status of the Task at the position.
+     *
+     * @param pos The position of the Task, starting from 0.
+     * @return true, if the Task is done, and false otherwise.
+     */
+    boolean get(int pos) {
+        return (words[pos / WORD_BITS] & (1L << pos)) != 0;
+    }
+
+    /**
+     * Counts the positions with the given status, using one popcount per 64 positions.
+     *
+     * @param isDone The status to count.
+     * @return The number of Tasks with the given status.
+     */
+    int count(boolean isDone) {
+        int done = 0;
+        int usedWords = (size + WORD_BITS - 1) / WORD_BITS;
+        for (int i = 0; i < usedWords; i++) {
+            done += Long.bitCount(words[i]);
+        }
+        return isDone ? done : size - done;
+    }
+
+    /**
+     * Finds the next position at or after the start with the given status.
+     * <p>Whole words without a matching bit are skipped, so iterating over every
+     * match costs one step per match, plus one step per 64 positions.</p>
+     *
+     * @param start The position to start searching from, starting from 0.
+     * @param isDone The status to search for.
+     * @return The next matching position, or -1 if there are none.
+     */
+    int next(int start, boolean isDone) {
+        if (start >= size) {
+            return -1;
+        }
+        int wordIndex = start / WORD_BITS;
+        long word = (isDone ? words[wordIndex] : ~words[wordIndex]) & (-1L << start);
+        while (true) {
+            if (word != 0) {
+                int pos = wordIndex * WORD_BITS + Long.numberOfTrailingZeros(word);
+                return pos < size ? pos : -1;
+            }
+            wordIndex++;
+            if (wordIndex * WORD_BITS >= size) {
+                return -1;
+            }
+            word = isDone ? words[wordIndex] : ~words[wordIndex];
+        }
+    }
+}
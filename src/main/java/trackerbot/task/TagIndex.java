@@ -0,0 +1,137 @@
+package trackerbot.task;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Inverted index from each tag to the IDs of the Tasks with that tag.
+ * <p>Each tag has a posting list of Task IDs in ascending order, stored in an int array. New
+ * Tasks get the highest ID so far, so adding a Task appends to the end of each of its posting
+ * lists. A query for several tags merges their posting lists, starting from the shortest, so
+ * its cost depends on the Tasks with those tags, rather than on the size of the TaskList.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+class TagIndex {
+    private static final int[] NO_IDS = new int[0];
+
+    private final HashMap<String, PostingList> postingLists = new HashMap<>();
+
+    /**
+     * Adds the Task to the posting list of each of its tags.
+     *
+     * @param task The Task to index, which must already have an ID.
+     */
+    void add(Task task) {
+        for (String tag : task.getTags()) {
+            postingLists.computeIfAbsent(tag, k -> new PostingList()).add(task.getId());
+        }
+    }
+
+    /**
+     * Removes the Task from the posting list of each of its tags.
+     *
+     * @param task The Task to remove from the index.
+     */
+    void remove(Task task) {
+        for (String tag : task.getTags()) {
+            PostingList postingList = postingLists.get(tag);
+            if (postingList == null) {
+                continue;
+            }
+            postingList.remove(task.getId());
+            if (postingList.size == 0) {
+                postingLists.remove(tag);
+            }
+        }
+    }
+
+    /**
+     * Gets the IDs of the Tasks that have every one of the tags.
+     *
+     * @param tags The tags to match, which must not be empty.
+     * @return The IDs of the matching Tasks, in ascending order.
+     */
+    int[] getIdsWithAll(List<String> tags) {
+        PostingList[] matches = new PostingList[tags.size()];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = postingLists.get(tags.get(i));
+            if (matches[i] == null) {
+                return NO_IDS;
+            }
+        }
+        // the result is never longer than the shortest list, so starting there keeps every merge short
+        Arrays.sort(matches, Comparator.comparingInt(postingList -> postingList.size));
+
+        int[] result = Arrays.copyOf(matches[0].ids, matches[0].size);
+        int resultSize = result.length;
+        for (int i = 1; i < matches.length && resultSize > 0; i++) {
+            resultSize = intersect(result, resultSize, matches[i]);
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    /**
+     * Empties the index.
+     */
+    void clear() {
+        postingLists.clear();
+    }
+
+    /**
+     * Intersects the IDs with the posting list in place, by merging the two sorted lists.
+     *
+     * @param ids The sorted IDs, which are overwritten by the intersection.
+     * @param size The number of IDs.
+     * @param postingList The posting list to intersect with.
+     * @return The number of IDs in the intersection.
+     */
+    private static int intersect(int[] ids, int size, PostingList postingList) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < postingList.size; i++) {
+            while (j < postingList.size && postingList.ids[j] < ids[i]) {
+                j++;
+            }
+            if (j < postingList.size && postingList.ids[j] == ids[i]) {
+                ids[kept++] = ids[i];
+                j++;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Sorted array of the IDs of the Tasks with a tag.
+     */
+    private static class PostingList {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            // IDs only ever increase, except when Tasks are loaded out of ID order
+            int pos = size == 0 || ids[size - 1] < id ? size : -Arrays.binarySearch(ids, 0, size, id) - 1;
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+    }
+}
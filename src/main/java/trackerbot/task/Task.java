@@ -1,6 +1,13 @@
 package trackerbot.task;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
 import trackerbot.exception.TrackerBotException;
+import trackerbot.utils.Json;
 
 /**
  * The Task class for TrackerBot.
@@ -12,12 +19,23 @@ import trackerbot.exception.TrackerBotException;
  * @version A-CodeQuality
  */
 public abstract class Task {
+    /** Prefix of a tag, as entered by the user and as saved. */
+    public static final String TAG_PREFIX = "#";
+
+    private static final String[] NO_TAGS = new String[0];
+
     /** The description of the task instance. **/
     private String description;
 
     /** The status of the task instance. If true, the task is done. */
     private boolean isDone;
 
+    /** The stable ID of the task instance, assigned by TaskList. 0 if not yet assigned. */
+    private int id;
+
+    /** The tags of the task instance, in lowercase and without the # prefix, sorted and distinct. */
+    private String[] tags = NO_TAGS;
+
     /**
      * Constructs the Task class.
      * <p>This is designed to be called by inheriting classes, using super.</p>
@@ -44,12 +62,15 @@ public abstract class Task {
     /**
      * Returns the save string for the child class. <br>
      * The save string should have the following format: <br>
-     * {Task Flag} | {Mark Status} | {Description} | {Fields...}
+     * {Task Flag} | {Mark Status} | {Description} | {Fields...} | {ID} [| {Tags}]
      * <ul>
      *  <li>Task Flag represents the type of Task to create.</li>
      *  <li>Mark Status is a 0/1 representation of the Checkmark status.</li>
      *  <li>Description is the main body of the Task item to display.</li>
      *  <li>Fields are the additional fields required by the Task, delimited by '|'.</li>
+     *  <li>ID is the stable ID of the Task.</li>
+     *  <li>Tags are the space-separated tags of the Task, each with the # prefix. The field is
+     *  left out if the Task has no tags, so untagged Tasks save as they did before tags.</li>
      * </ul>
      *
      * @return The '|' delimited String to store in save file.
@@ -59,6 +80,9 @@ public abstract class Task {
     /**
      * Constructs Tasks using inputs from the savd file.
      * <p>ofSaveString expects the save string to be split before passing into Task.</p>
+     * <p>Save strings written before Tasks had IDs lack the trailing ID field. These are
+     * still accepted, and the Task is left without an ID for TaskList to assign. The tags field
+     * after the ID is optional.</p>
      *
      * @param type The String representation of the Task in the save file.
      * @param args The Arguments for each task in the save file.
@@ -68,27 +92,65 @@ public abstract class Task {
      */
     public static Task ofSaveString(String type, String... args)
             throws TrackerBotException {
+        Task result;
         switch (type) {
         case "T":
-            if (args.length != 2) {
-                throw new TrackerBotException("Todos should have exactly 2 arguments.");
+            if (args.length < 2 || args.length > 4) {
+                throw new TrackerBotException("Todos should have exactly 2 arguments and an ID.");
             }
-            return new Todo(args);
+            result = new Todo(args);
+            break;
         case "D":
-            if (args.length != 3) {
-                throw new TrackerBotException("Deadline should have exactly 3 arguments.");
+            if (args.length < 3 || args.length > 5) {
+                throw new TrackerBotException("Deadline should have exactly 3 arguments and an ID.");
             }
-            return new Deadline(args);
+            result = new Deadline(args);
+            break;
         case "E":
-            if (args.length != 4) {
-                throw new TrackerBotException("Events should have exactly 4 arguments.");
+            if (args.length < 4 || args.length > 6) {
+                throw new TrackerBotException("Events should have exactly 4 arguments and an ID.");
+            }
+            result = new Event(args);
+            break;
+        case "R":
+            if (args.length < 4 || args.length > 6) {
+                throw new TrackerBotException("Recurring tasks should have exactly 4 arguments and an ID.");
             }
-            return new Event(args);
+            result = new Recurring(args);
+            break;
         default:
             throw new IllegalStateException("Unknown Task type.");
         }
+
+        int argCount = result.getSaveArgCount();
+        if (args.length > argCount) {
+            result.id = parseSaveId(args[argCount]);
+        }
+        if (args.length > argCount + 1) {
+            result.setTags(Arrays.asList(args[argCount + 1].split(" ")));
+        }
+        return result;
     }
 
+    private static int parseSaveId(String idStr) throws TrackerBotException {
+        try {
+            int id = Integer.parseInt(idStr);
+            if (id <= 0) {
+                throw new TrackerBotException("Task IDs should be positive.");
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new TrackerBotException("Cannot parse ID field.");
+        }
+    }
+
+    /**
+     * Gets the number of fields in the save string of the Task, excluding the flag and ID.
+     *
+     * @return The number of save arguments the Task is constructed from.
+     */
+    protected abstract int getSaveArgCount();
+
     /**
      * Helps toSaveString generate a save string. <br>
      * Gets a formatted description and mark status of the Task, and
@@ -102,6 +164,35 @@ public abstract class Task {
         return checkStatus + "|" + description;
     }
 
+    /**
+     * Helps toSaveString generate a save string. <br>
+     * Gets the ID of the Task, followed by its tags if it has any, to append to the end of the save string.
+     *
+     * @return | {ID} [| {Tags}] String, to append to toSaveString implementation in child classes.
+     */
+    protected String getSaveId() {
+        if (tags.length == 0) {
+            return "|" + id;
+        }
+        return "|" + id + "|" + getTagString();
+    }
+
+    /**
+     * Gets the tags of the Task, each with the # prefix, separated by spaces.
+     *
+     * @return The tags of the Task, or an empty String if it has none.
+     */
+    private String getTagString() {
+        StringBuilder result = new StringBuilder();
+        for (String tag : tags) {
+            if (result.length() > 0) {
+                result.append(' ');
+            }
+            result.append(TAG_PREFIX).append(tag);
+        }
+        return result.toString();
+    }
+
     /**
      * Helps determine the checkmark status of the Task.
      *
@@ -146,15 +237,158 @@ public abstract class Task {
         return description.contains(searchStr);
     }
 
+    /**
+     * Gets the flag representing the type of the Task, as used in the save string.
+     *
+     * @return "T", "D", "E" or "R", depending on the subtype of the Task.
+     */
+    public abstract String getTypeFlag();
+
+    /**
+     * Gets the date that the Task is tracked by, if any.
+     * <p>Tasks without DateTime fields return null.</p>
+     *
+     * @return The date of the Task, or null if the Task has no date.
+     */
+    public LocalDateTime getDate() {
+        return null;
+    }
+
+    /**
+     * Gets the date that the Task ends on, if any.
+     * <p>Tasks that occur at a single point in time end on their date.</p>
+     *
+     * @return The end date of the Task, or null if the Task has no date.
+     */
+    public LocalDateTime getEndDate() {
+        return getDate();
+    }
+
+    /**
+     * Gets the first date that the Task occurs on strictly after the given date.
+     * <p>A Task with a single date occurs only on that date. Tasks that occur more than once
+     * override this to compute their next occurrence.</p>
+     *
+     * @param after The exclusive lower bound, or null to get the first occurrence.
+     * @return The next occurrence after the date, or null if the Task does not occur after it.
+     */
+    public LocalDateTime getNextOccurrence(LocalDateTime after) {
+        LocalDateTime date = getDate();
+        return date != null && (after == null || date.isAfter(after)) ? date : null;
+    }
+
+    /**
+     * Checks if the Task occurs strictly between the two bounds.
+     *
+     * @param after The exclusive lower bound, or null if unbounded.
+     * @param before The exclusive upper bound, or null if unbounded.
+     * @return true, if any occurrence of the Task is between the bounds, and false otherwise.
+     */
+    public boolean isDatedBetween(LocalDateTime after, LocalDateTime before) {
+        LocalDateTime next = getNextOccurrence(after);
+        return next != null && (before == null || next.isBefore(before));
+    }
+
+    /**
+     * Gets the stable ID of the Task.
+     * <p>Unlike its index in the list, the ID of a Task never changes, and is
+     * never reused for another Task.</p>
+     *
+     * @return The ID of the Task, or 0 if it has not been added into a TaskList.
+     */
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the tags of the Task.
+     *
+     * @return The tags in lowercase and without the # prefix, sorted and distinct.
+     */
+    public List<String> getTags() {
+        return List.of(tags);
+    }
+
+    /**
+     * Sets the tags of the Task.
+     * <p>The tags are indexed when the Task is added into a TaskList, so they must be set before then.</p>
+     *
+     * @param tags The tags, with or without the # prefix, in any case.
+     */
+    public void setTags(Collection<String> tags) {
+        TreeSet<String> sortedTags = new TreeSet<>();
+        for (String tag : tags) {
+            String name = tag.startsWith(TAG_PREFIX) ? tag.substring(TAG_PREFIX.length()) : tag;
+            if (!name.isEmpty()) {
+                sortedTags.add(name.toLowerCase());
+            }
+        }
+        this.tags = sortedTags.toArray(NO_TAGS);
+    }
+
+    /**
+     * Checks if the Task is completed.
+     *
+     * @return true, if the Task is done, and false otherwise.
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
+    /**
+     * Gets the description of the Task.
+     *
+     * @return The description of the Task.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Appends the JSON representation of the Task, for machine consumers of the Task List.
+     * <p>A Task is written as an object of its ID, type flag, status, description, date,
+     * end date and tags. A Recurring task is dated by its first occurrence, and has no end date.</p>
+     *
+     * @param json The JSON to append the Task to.
+     */
+    public void appendJson(StringBuilder json) {
+        json.append("{\"id\":").append(getId());
+        json.append(",\"type\":");
+        Json.appendString(json, getTypeFlag());
+        json.append(",\"done\":").append(isDone());
+        json.append(",\"description\":");
+        Json.appendString(json, getDescription());
+        json.append(",\"date\":");
+        Json.appendDate(json, getNextOccurrence(null));
+        json.append(",\"end\":");
+        Json.appendDate(json, getEndDate());
+        json.append(",\"tags\":[");
+        List<String> taskTags = getTags();
+        for (int i = 0; i < taskTags.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            Json.appendString(json, taskTags.get(i));
+        }
+        json.append("]}");
+    }
+
     /**
      * Returns the String representation of the Task.
-     * <p>A Task is formatted as "[X] description of task", where the X may or
+     * <p>A Task is formatted as "[X] description of task #tags", where the X may or
      * may not be present depending on the completion status of the task.</p>
      *
      * @return The String representation of the Task.
      */
     @Override
     public String toString() {
-        return getCheckbox() + " " + description;
+        if (tags.length == 0) {
+            return getCheckbox() + " " + description;
+        }
+        return getCheckbox() + " " + description + " " + getTagString();
     }
 }
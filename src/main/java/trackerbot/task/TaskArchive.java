@@ -0,0 +1,75 @@
+package trackerbot.task;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Read-only collection of the Tasks moved out of the TaskList into the archive file.
+ * <p>Archived Tasks have no index in the list, so they are displayed and referred to
+ * by their stable ID instead. The archive is only loaded on demand, so it is searched
+ * with a plain scan rather than through the indexes that TaskList keeps.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see TaskList#getArchivable
+ */
+public class TaskArchive {
+    private final List<Task> tasks;
+
+    /**
+     * Constructs a TaskArchive over the Tasks read from the archive file.
+     *
+     * @param tasks The archived Tasks, in the order they were archived.
+     */
+    public TaskArchive(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Finds all archived Tasks matching the query.
+     *
+     * @param searchStr The query to match at any point in the description of the Task.
+     * @return A String representation of all the archived Tasks matching the query, by ID.
+     *         If no Tasks match the query, returns a String indicating no matches.
+     */
+    public String findAll(String searchStr) {
+        return getListOfMatches(task -> task.doesContain(searchStr));
+    }
+
+    /**
+     * Finds all archived Tasks matching the structured query.
+     *
+     * @param query The compiled structured query.
+     * @return A String representation of all the archived Tasks matching the query, by ID.
+     *         If no Tasks match the query, returns a String indicating no matches.
+     */
+    public String findAll(TaskQuery query) {
+        return getListOfMatches(query::matches);
+    }
+
+    /**
+     * Gets the number of Tasks in the archive.
+     *
+     * @return The number of archived Tasks.
+     */
+    public int getSize() {
+        return tasks.size();
+    }
+
+    private String getListOfMatches(Predicate<Task> predicate) {
+        StringBuilder result = new StringBuilder();
+        for (Task task : tasks) {
+            if (predicate.test(task)) {
+                result.append("\n#");
+                result.append(task.getId());
+                result.append(" ");
+                result.append(task);
+            }
+        }
+
+        if (result.length() == 0) {
+            return "No archived tasks match your search.";
+        }
+        return "These archived tasks match your search:" + result;
+    }
+}
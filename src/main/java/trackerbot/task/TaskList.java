@@ -1,11 +1,24 @@
 package trackerbot.task;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
 
+import trackerbot.command.CommandResult;
 import trackerbot.command.CommandType;
 import trackerbot.exception.TrackerBotException;
+import trackerbot.utils.CompletionTrie;
 import trackerbot.utils.Parser;
+import trackerbot.utils.TaskDateHandler;
 
 /**
  * Collection of Tasks for use in TrackerBot.
@@ -14,13 +27,108 @@ import trackerbot.utils.Parser;
  * @version A-CodeQuality
  */
 public class TaskList {
+    /** Maximum number of results returned by a fuzzy search. */
+    private static final int FUZZY_RESULT_LIMIT = 10;
+
+    /** Minimum length of a word in a description to offer as a completion. */
+    private static final int MIN_COMPLETION_LENGTH = 3;
+
+    /** Maximum number of Tasks whose deferred indexes are built by a completion, rather than by a search. */
+    private static final int MAX_TASKS_INDEXED_ON_COMPLETION = 2_000;
+
+    /** Maximum number of rendered responses kept by the response cache. */
+    private static final int RESPONSE_CACHE_ENTRIES = 32;
+
+    /** Maximum total length of the rendered responses kept by the response cache. */
+    private static final long RESPONSE_CACHE_CHARS = 1L << 23;
+
     /**
      * The ArrayList of Tasks to store in the TaskList.
      */
     private final ArrayList<Task> tasks;
 
+    /** Descriptions of the Tasks, by list position, for search-as-you-type. */
+    private final ArrayList<String> descriptions;
+
+    /** Trigram index over the descriptions of the Tasks, for fuzzy search. */
+    private final FuzzyIndex fuzzyIndex;
+
+    /** Radix tree of the words in the descriptions of the Tasks, counted by the Tasks using them. */
+    private final CompletionTrie wordTrie;
+
+    /** Index of the dated Tasks, ordered by date. */
+    private final DateIndex dateIndex;
+
+    /** Min-heap of the incomplete dated Tasks, ordered by date. */
+    private final DueQueue dueQueue;
+
+    /** Interval index over the periods of the Events. */
+    private final IntervalTree eventIntervals;
+
+    /** Cached sorted orderings of the Tasks, keyed by their sort key, built on first use. */
+    private final HashMap<String, SortedView> sortedViews;
+
+    /** Index of the Tasks, grouped by their type flag. */
+    private final HashMap<String, HashSet<Task>> typeIndex;
+
+    /** Posting lists of the IDs of the Tasks with each tag. */
+    private final TagIndex tagIndex;
+
+    /** Completion status of the Tasks, by list position. */
+    private final StatusBitmap statusBitmap;
+
+    /** Position of each Task in the list, keyed by the stable ID of the Task. */
+    private final IdSlotMap idSlots;
+
+    /** Publishes each change to the list to its subscribers, or null if no feed is attached. */
+    private ChangeFeed changeFeed;
+
+    /** Sends reminders for the incomplete dated Tasks, or null if reminders are off. */
+    private ReminderScheduler reminders;
+
+    /** The ID to assign to the next Task added into the list. */
+    private int nextId;
+
+    /** The name of the workspace that the list belongs to, which decides where Storage saves it. */
+    private String workspace;
+
+    /** Number of modifications made to the list, which versions the cached responses. */
+    private long version;
+
+    /** The search-as-you-type snapshot of the list, or null if Tasks were added or removed since the last one. */
+    private IncrementalSearch incrementalSearch;
+
+    /** Rendered responses of the read-only queries, valid only at the version they were rendered at. */
+    private final ResponseCache responseCache;
+
+    /**
+     * Whether the descriptions, fuzzy, date and type indexes are populated.
+     * <p>These indexes read the contents of every Task, so they are only built on the first
+     * search after a lazy load, rather than parsing every Task at startup.</p>
+     */
+    private boolean areSearchIndexesBuilt;
+
+    /**
+     * Constructs an empty TaskList.
+     */
     public TaskList() {
         tasks = new ArrayList<>();
+        descriptions = new ArrayList<>();
+        fuzzyIndex = new FuzzyIndex();
+        wordTrie = new CompletionTrie();
+        dateIndex = new DateIndex();
+        dueQueue = new DueQueue();
+        eventIntervals = new IntervalTree();
+        typeIndex = new HashMap<>();
+        tagIndex = new TagIndex();
+        sortedViews = new HashMap<>();
+        statusBitmap = new StatusBitmap();
+        idSlots = new IdSlotMap();
+        responseCache = new ResponseCache(RESPONSE_CACHE_ENTRIES, RESPONSE_CACHE_CHARS);
+        nextId = 1;
+        version = 0;
+        workspace = Workspaces.DEFAULT_WORKSPACE;
+        areSearchIndexesBuilt = true;
     }
 
     /**
@@ -28,131 +136,200 @@ public class TaskList {
      *
      * @param type The enumerated type of Command to add into the Task.
      * @param commandField The description of the Command.
-     * @return The reply String to be passed into Ui.
+     * @return The result holding the new Task, which renders the reply and any conflicting Events on demand.
      * @throws TrackerBotException if the addition of the task encounters an error during parse.
      * @see trackerbot.utils.Parser#parseAdd
      */
-    public String addTask(CommandType type, String commandField) throws TrackerBotException {
+    public CommandResult addTask(CommandType type, String commandField) throws TrackerBotException {
         Task newTask = Parser.parseAdd(type, commandField);
-        tasks.add(newTask);
-        return "I am tracking this task now:\n  " + newTask.toString();
+        newTask.setId(nextId++);
+        appendTask(newTask);
+        return new CommandResult(List.of(newTask), tasks.size(), "", () ->
+                "I am tracking this task now (#" + newTask.getId() + "):\n  " + newTask.toString()
+                + getConflictWarning(newTask));
+    }
+
+    /**
+     * Adds a batch of Tasks into the list at once.
+     * <p>The list grows once for the whole batch, and each Task is given the next ID in order.</p>
+     *
+     * @param newTasks The Tasks to add, in the order to add them.
+     * @return The result holding the new Tasks, which renders the reply on demand.
+     */
+    public CommandResult addTasks(List<Task> newTasks) {
+        tasks.ensureCapacity(tasks.size() + newTasks.size());
+        for (Task task : newTasks) {
+            task.setId(nextId++);
+            appendTask(task);
+        }
+        int listSize = tasks.size();
+        return new CommandResult(newTasks, listSize, "", () ->
+                "I am tracking " + newTasks.size() + " new task(s) now.\n"
+                + listSize + " task(s) are on my list.");
     }
 
     /**
      * Attempts to toggle the item at index as complete.
      *
      * @param index The index of the Task in the TaskList, starting from 1.
-     * @return The reply String to be passed into Ui.
+     * @return The result holding the marked Task, which renders the reply on demand.
      * @throws TrackerBotException if the Task specified does not exist, or is
      *                             already completed.
      */
-    public String markTask(int index) throws TrackerBotException {
-        Task task = getTask(index);
-        task.markTask();
-        return "This task has been marked as completed.\n  " + task;
+    public CommandResult markTask(int index) throws TrackerBotException {
+        Task task = setStatus(index, true);
+        return new CommandResult(List.of(task), tasks.size(), "", () ->
+                "This task has been marked as completed.\n  " + task);
     }
 
     /**
      * Attempts to toggle a collection of tasks in the list as complete.
+     * <p>The tasks are marked in ascending order of index.</p>
      *
-     * @param indexes The Set of all indexes to mark in the list.
-     * @return The reply String to be passed into Ui.
+     * @param indexes The set of all indexes to mark in the list, where bit i selects the index i.
+     * @param errorLog The log to append the errors of tasks that cannot be marked to.
+     * @return The result holding the marked Tasks, which renders the reply on demand.
      */
-    public String markTasks(HashSet<Integer> indexes, StringBuilder errorLog) {
-        ArrayList<Task> markedTasks = new ArrayList<>();
-        indexes.iterator().forEachRemaining((index) -> {
-            try {
-                Task task = getTask(index);
-                task.markTask();
-                markedTasks.add(task);
-            } catch (TrackerBotException e) {
-                errorLog.append("\n");
-                errorLog.append(index);
-                errorLog.append(" - ");
-                errorLog.append(e.getMessage());
-            }
-        });
-
-        return "These tasks have been marked as completed:\n\n"
-                + getListOfTasks(markedTasks) + "\n\n";
+    public CommandResult markTasks(BitSet indexes, StringBuilder errorLog) {
+        ArrayList<Task> markedTasks = setStatuses(indexes, true, errorLog);
+        return new CommandResult(markedTasks, tasks.size(), errorLog, () ->
+                "These tasks have been marked as completed:\n\n" + getListOfTasks(markedTasks) + "\n\n");
     }
 
     /**
      * Attempts to toggle the item at index as incomplete.
      *
      * @param index The index of the Task in the TaskList, starting from 1.
-     * @return The reply String to be passed into Ui.
+     * @return The result holding the unmarked Task, which renders the reply on demand.
      * @throws TrackerBotException if the Task specified does not exist, or is
      *                             still incompleted.
      */
-    public String unmarkTask(int index) throws TrackerBotException {
-        Task task = getTask(index);
-        task.unmarkTask();
-        return "The task has been marked as incomplete.\n  " + task;
+    public CommandResult unmarkTask(int index) throws TrackerBotException {
+        Task task = setStatus(index, false);
+        return new CommandResult(List.of(task), tasks.size(), "", () ->
+                "The task has been marked as incomplete.\n  " + task);
     }
 
     /**
      * Attempts to toggle a collection of tasks in the list as incomplete.
+     * <p>The tasks are unmarked in ascending order of index.</p>
      *
-     * @param indexes The Set of all indexes to unmark in the list.
-     * @return The reply String to be passed into Ui.
+     * @param indexes The set of all indexes to unmark in the list, where bit i selects the index i.
+     * @param errorLog The log to append the errors of tasks that cannot be unmarked to.
+     * @return The result holding the unmarked Tasks, which renders the reply on demand.
      */
-    public String unmarkTasks(HashSet<Integer> indexes, StringBuilder errorLog) {
-        ArrayList<Task> unmarkedTasks = new ArrayList<>();
-        indexes.iterator().forEachRemaining((index) -> {
-            try {
-                Task task = getTask(index);
-                task.unmarkTask();
-                unmarkedTasks.add(task);
-            } catch (TrackerBotException e) {
-                errorLog.append("\n");
-                errorLog.append(index);
-                errorLog.append(" - ");
-                errorLog.append(e.getMessage());
-            }
-        });
-
-        return "These tasks have been marked as incomplete:\n\n"
-                + getListOfTasks(unmarkedTasks) + "\n\n";
+    public CommandResult unmarkTasks(BitSet indexes, StringBuilder errorLog) {
+        ArrayList<Task> unmarkedTasks = setStatuses(indexes, false, errorLog);
+        return new CommandResult(unmarkedTasks, tasks.size(), errorLog, () ->
+                "These tasks have been marked as incomplete:\n\n" + getListOfTasks(unmarkedTasks) + "\n\n");
     }
 
     /**
      * Attempts to delete the item at index.
      *
      * @param index The index of the Task in the TaskList, starting from 1.
-     * @return The reply String to be passed into Ui.
+     * @return The result holding the deleted Task, which renders the reply on demand.
      * @throws TrackerBotException if the Task specified does not exist.
      */
-    public String deleteTask(int index) throws TrackerBotException {
+    public CommandResult deleteTask(int index) throws TrackerBotException {
         Task task = getTask(index);
         tasks.remove(index - 1);
-        return "I have removed this task off of my list.\n  " + task + "\n"
-                + tasks.size() + " task(s) remain on my list.";
+        if (areSearchIndexesBuilt) {
+            descriptions.remove(index - 1);
+        }
+        statusBitmap.remove(index - 1);
+        incrementalSearch = null;
+        sortedViews.values().forEach(view -> view.remove(task));
+        unindexTask(task);
+        updateSlotsFrom(index - 1);
+        version++;
+        publishChange(ChangeEvent.Type.REMOVED, task, index);
+        int listSize = tasks.size();
+        return new CommandResult(List.of(task), listSize, "", () ->
+                "I have removed this task off of my list.\n  " + task + "\n"
+                + listSize + " task(s) remain on my list.");
     }
 
     /**
      * Attempts to delete a collection of tasks from the list.
+     * <p>The selected positions are used directly as the removal mask, so the list is
+     * compacted in a single pass.</p>
      *
-     * @param indexes The Set of all indexes to remove from the list.
-     * @return The reply String to be passed into Ui.
+     * @param indexes The set of all indexes to remove from the list, where bit i selects the index i.
+     * @param errorLog The log to append the indexes that do not exist to.
+     * @return The result holding the deleted Tasks, which renders the reply on demand.
      */
-    public String deleteTasks(HashSet<Integer> indexes, StringBuilder errorLog) {
-        ArrayList<Task> tasksToDelete = new ArrayList<>();
-        indexes.iterator().forEachRemaining((index) -> {
-            try {
-                tasksToDelete.add(getTask(index));
-            } catch (TrackerBotException e) {
-                errorLog.append("\n");
-                errorLog.append(index);
-                errorLog.append(" - ");
-                errorLog.append(e.getMessage());
-            }
-        });
+    public CommandResult deleteTasks(BitSet indexes, StringBuilder errorLog) {
+        if (indexes.get(0)) {
+            logError(errorLog, 0, "The specified task does not exist.");
+        }
+        for (int index = indexes.nextSetBit(tasks.size() + 1); index >= 0; index = indexes.nextSetBit(index + 1)) {
+            logError(errorLog, index, "The specified task does not exist.");
+        }
+
+        // shift the selection down, so that bit i selects the position i
+        BitSet isDeleted = indexes.get(1, tasks.size() + 1);
+        ArrayList<Task> tasksToDelete = new ArrayList<>(isDeleted.cardinality());
+        for (int pos = isDeleted.nextSetBit(0); pos >= 0; pos = isDeleted.nextSetBit(pos + 1)) {
+            tasksToDelete.add(tasks.get(pos));
+        }
 
-        tasks.removeAll(tasksToDelete);
-        return "I have removed these tasks off of my list:\n\n"
+        if (!tasksToDelete.isEmpty()) {
+            removePositions(isDeleted, isDeleted.nextSetBit(0));
+        }
+        sortedViews.values().forEach(view -> view.removeAll(tasksToDelete));
+        tasksToDelete.forEach(this::unindexTask);
+        int listSize = tasks.size();
+        return new CommandResult(tasksToDelete, listSize, errorLog, () ->
+                "I have removed these tasks off of my list:\n\n"
                 + getListOfTasks(tasksToDelete) + "\n"
-                + tasks.size() + " task(s) remain on my list.\n\n";
+                + listSize + " task(s) remain on my list.\n\n");
+    }
+
+    /**
+     * Gets the completed Tasks that are ready to be archived, in list order.
+     * <p>If a cutoff is given, only completed Tasks dated before the cutoff are returned,
+     * so Tasks without a date are never archived by age.</p>
+     *
+     * @param cutoff The date that archived Tasks must be dated before, or null to get every
+     *               completed Task.
+     * @return The Tasks to archive.
+     */
+    public List<Task> getArchivable(LocalDateTime cutoff) {
+        ArrayList<Task> result = new ArrayList<>();
+        for (int pos = statusBitmap.next(0, true); pos != -1; pos = statusBitmap.next(pos + 1, true)) {
+            Task task = tasks.get(pos);
+            if (cutoff == null || (task.getDate() != null && task.getDate().isBefore(cutoff))) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes Tasks that have been written into the archive from the list.
+     * <p>This is a method used by Storage, once the Tasks are safely in the archive file.
+     * The Tasks keep their IDs in the archive, and their IDs are never reused.</p>
+     *
+     * @param archivedTasks The Tasks to remove, as returned by getArchivable.
+     * @return The reply String to be passed into Ui.
+     * @see #getArchivable(LocalDateTime)
+     */
+    public String removeArchived(List<Task> archivedTasks) {
+        BitSet isArchived = new BitSet(tasks.size());
+        for (Task task : archivedTasks) {
+            int pos = idSlots.get(task.getId());
+            assert pos != -1 : "archived tasks should be in the list";
+            isArchived.set(pos);
+        }
+
+        if (!archivedTasks.isEmpty()) {
+            removePositions(isArchived, isArchived.nextSetBit(0));
+        }
+        sortedViews.values().forEach(view -> view.removeAll(archivedTasks));
+        archivedTasks.forEach(this::unindexTask);
+        return "I have moved " + archivedTasks.size() + " completed task(s) into the archive.\n"
+                + tasks.size() + " task(s) remain on my list.";
     }
 
     /**
@@ -160,6 +337,106 @@ public class TaskList {
      */
     public void clear() {
         tasks.clear();
+        descriptions.clear();
+        incrementalSearch = null;
+        fuzzyIndex.clear();
+        wordTrie.clear();
+        dateIndex.clear();
+        dueQueue.clear();
+        eventIntervals.clear();
+        typeIndex.clear();
+        tagIndex.clear();
+        sortedViews.clear();
+        statusBitmap.clear();
+        idSlots.clear();
+        responseCache.clear();
+        nextId = 1;
+        version++;
+        publishChange(ChangeEvent.Type.RESET, null, 0);
+        areSearchIndexesBuilt = true;
+        if (reminders != null) {
+            reminders.clear();
+        }
+    }
+
+    /**
+     * Attaches the scheduler that sends reminders for the Tasks in the list.
+     * <p>Every incomplete Task already in the list is scheduled. From then on, the scheduler
+     * is updated as Tasks are added, deleted, marked and unmarked.</p>
+     *
+     * @param reminders The scheduler to keep up to date with the list, or null to turn reminders off.
+     */
+    public void setReminderScheduler(ReminderScheduler reminders) {
+        this.reminders = reminders;
+        if (reminders == null) {
+            return;
+        }
+        for (int pos = statusBitmap.next(0, false); pos != -1; pos = statusBitmap.next(pos + 1, false)) {
+            reminders.schedule(tasks.get(pos));
+        }
+    }
+
+    /**
+     * Attaches the feed that publishes each change to the list.
+     * <p>A RESET is published first, as the list may differ entirely from the list that the
+     * feed was previously attached to, such as when a loaded list replaces an empty one.</p>
+     *
+     * @param changeFeed The feed to publish the changes to the list through, or null to stop publishing.
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+        publishChange(ChangeEvent.Type.RESET, null, 0);
+    }
+
+    /**
+     * Defers building the indexes that need the contents of each Task until the first search.
+     * <p>This is a method used by Storage, before importing lazily parsed Tasks, so that
+     * importing them does not parse them.</p>
+     */
+    public void deferSearchIndexes() {
+        areSearchIndexesBuilt = false;
+    }
+
+    /**
+     * Selects the index of every Task with the given status.
+     * <p>The Tasks are found from the status bitmap, so Tasks with a different status
+     * are skipped without being visited.</p>
+     *
+     * @param isDone The status of the Tasks to select.
+     * @param selection The set of indexes to add to, where bit i selects the index i.
+     */
+    public void selectByStatus(boolean isDone, BitSet selection) {
+        for (int pos = statusBitmap.next(0, isDone); pos != -1; pos = statusBitmap.next(pos + 1, isDone)) {
+            selection.set(pos + 1);
+        }
+    }
+
+    /**
+     * Selects the indexes of every Task with the tag, for mass operations.
+     *
+     * @param tag The tag of the Tasks to select, in lowercase and without the # prefix.
+     * @param selection The selection to add the indexes to, where bit i selects the index i.
+     */
+    public void selectByTag(String tag, BitSet selection) {
+        buildSearchIndexes();
+        for (int id : tagIndex.getIdsWithAll(List.of(tag))) {
+            selection.set(idSlots.get(id) + 1);
+        }
+    }
+
+    /**
+     * Gets the index in the list of the Task with the given ID.
+     *
+     * @param id The stable ID of the Task.
+     * @return The index of the Task in the TaskList, starting from 1.
+     * @throws TrackerBotException if no Task in the list has the ID.
+     */
+    public int getIndexOfId(int id) throws TrackerBotException {
+        int pos = id > 0 ? idSlots.get(id) : -1;
+        if (pos == -1) {
+            throw new TrackerBotException("No task has the ID #" + id + ".");
+        }
+        return pos + 1;
     }
 
     /**
@@ -170,39 +447,285 @@ public class TaskList {
      *         If no Tasks match the query, returns a String indicating no matches.
      */
     public String findAll(String searchStr) {
+        return responseCache.get("find " + searchStr, version,
+                () -> getListOfMatches(tasks, task -> task.doesContain(searchStr)));
+    }
+
+    /**
+     * Finds all Tasks matching the structured query, along with the associated index in the list.
+     * <p>The query is evaluated on the smallest candidate set available from the indexes
+     * of the TaskList, rather than on every Task in the list.</p>
+     *
+     * @param query The compiled structured query.
+     * @return A String representation of all the Tasks matching the query, in list form.
+     *         If no Tasks match the query, returns a String indicating no matches.
+     * @see TaskQuery
+     */
+    public String findAll(TaskQuery query) {
+        return responseCache.get("query " + query.getCacheKey(), version, () -> renderMatches(query));
+    }
+
+    /**
+     * Finds the Tasks that best match the query, allowing for typos and differences in case.
+     * <p>Results are ranked by how closely they match the query, and capped at
+     * FUZZY_RESULT_LIMIT results.</p>
+     *
+     * @param query The query to match against the words in the description of the Task.
+     * @return A String representation of the best matching Tasks, in ranked order.
+     *         If no Tasks match the query, returns a String indicating no matches.
+     */
+    public String findFuzzy(String query) {
+        return responseCache.get("find ~" + query, version, () -> renderFuzzyMatches(query));
+    }
+
+    /**
+     * Returns a UI-friendly String representation of the Task List.
+     * <p>Like every list and find response, the rendered String is cached until the list is next
+     * modified, so repeated calls on an unchanged list return in constant time.</p>
+     *
+     * @return A String representation of the Task List, to pass directly into Ui.
+     */
+    public String list() {
+        return responseCache.get("list", version, () -> {
+            if (tasks.size() == 0) {
+                return "No tasks have been added to the list yet.";
+            }
+            return "I am tracking these tasks:\n" + getListOfTasks(tasks);
+        });
+    }
+
+    /**
+     * Gets the search-as-you-type snapshot of the descriptions in the list.
+     * <p>The same snapshot is returned until a Task is added or removed, so each keystroke can narrow
+     * the matches of the last. Marking a Task does not change its description or position, so it keeps
+     * the snapshot. The descriptions are kept up to date as Tasks are added and removed, so taking a
+     * snapshot is a single copy of their references, without reading any Task. If the indexes were
+     * deferred by a lazy load, they are built here, as by the first search.</p>
+     *
+     * @return The IncrementalSearch over the list as it is now.
+     */
+    public IncrementalSearch getIncrementalSearch() {
+        if (incrementalSearch == null) {
+            buildSearchIndexes();
+            incrementalSearch = new IncrementalSearch(tasks, descriptions.toArray(new String[0]));
+        }
+        return incrementalSearch;
+    }
+
+    /**
+     * Returns a UI-friendly String representation of the Task List, in the order of the sort key.
+     * <p>The sorted order is cached on first use, and kept up to date as the list changes,
+     * so later calls do not sort the list again.</p>
+     *
+     * @param key The sort key, which is "due", "status" or "alpha".
+     * @return A String representation of the sorted Task List, to pass directly into Ui.
+     * @throws TrackerBotException if the sort key is unknown.
+     */
+    public String listSorted(String key) throws TrackerBotException {
+        Comparator<Task> order = SortedView.getOrder(key);
+        if (order == null) {
+            throw new TrackerBotException("Invalid format: list --sort=[due/status/alpha]");
+        }
+        return responseCache.get("list --sort=" + key, version, () -> renderSorted(key, order));
+    }
+
+    /**
+     * Returns a UI-friendly String representation of the Tasks that have every one of the tags.
+     * <p>The Tasks are found by merging the posting lists of the tags, so Tasks without the
+     * tags are never visited.</p>
+     *
+     * @param tags The tags to match, in lowercase and without the # prefix, which must not be empty.
+     * @return A String representation of the matching Tasks, to pass directly into Ui.
+     */
+    public String listByTags(List<String> tags) {
+        StringBuilder key = new StringBuilder("list");
+        for (String tag : tags) {
+            key.append(' ').append(Task.TAG_PREFIX).append(tag);
+        }
+        return responseCache.get(key.toString(), version, () -> renderByTags(key.substring("list ".length()), tags));
+    }
+
+    /**
+     * Returns a UI-friendly String representation of the Tasks with the given status.
+     * <p>The Tasks are found from the status bitmap, so Tasks with a different status
+     * are skipped without being visited.</p>
+     *
+     * @param isDone The status of the Tasks to list.
+     * @return A String representation of the matching Tasks, to pass directly into Ui.
+     */
+    public String listByStatus(boolean isDone) {
+        return responseCache.get(isDone ? "list done" : "list todo", version, () -> renderByStatus(isDone));
+    }
+
+    /**
+     * Returns a UI-friendly String representation of the incomplete Tasks occurring strictly
+     * between the two dates, in date order.
+     * <p>Dated Tasks are read in order from the date index, and merged with the occurrences of
+     * each Recurring task through a priority queue keyed on the next occurrence of each rule.
+     * Occurrences are computed one at a time, and only within the window, so the cost is
+     * O((C + K) log R) for C dated Tasks and K occurrences of R rules in the window.
+     * Tasks and occurrences at the same time are listed in order of ID, with dated Tasks first.</p>
+     *
+     * @param from The exclusive start of the window.
+     * @param to The exclusive end of the window.
+     * @return A String representation of the upcoming Tasks, to pass directly into Ui.
+     */
+    public String listUpcoming(LocalDateTime from, LocalDateTime to) {
+        buildSearchIndexes();
+        List<Task> datedTasks = dateIndex.getBetween(from, to);
+        HashMap<Task, LocalDateTime> nextOccurrences = new HashMap<>();
+        // ties are broken on ID, so rules with the same next occurrence always come out in the same order
+        PriorityQueue<Task> rules = new PriorityQueue<>(Comparator.comparing((Task rule) -> nextOccurrences.get(rule))
+                .thenComparingInt(Task::getId));
+        for (Task rule : typeIndex.getOrDefault("R", new HashSet<>())) {
+            LocalDateTime next = rule.getNextOccurrence(from);
+            if (!rule.isDone() && next.isBefore(to)) {
+                nextOccurrences.put(rule, next);
+                rules.add(rule);
+            }
+        }
+
         StringBuilder result = new StringBuilder();
+        int datedPos = 0;
+        while (true) {
+            while (datedPos < datedTasks.size() && datedTasks.get(datedPos).isDone()) {
+                datedPos++;
+            }
+            Task datedTask = datedPos < datedTasks.size() ? datedTasks.get(datedPos) : null;
+            Task rule = rules.peek();
+            if (datedTask == null && rule == null) {
+                break;
+            }
 
-        for (int i = 1; i < tasks.size() + 1; i++) {
-            if (tasks.get(i - 1).doesContain(searchStr)) {
-                result.append(i);
-                result.append(". ");
-                result.append(tasks.get(i - 1).toString());
-                result.append("\n");
+            if (rule == null || (datedTask != null && !nextOccurrences.get(rule).isBefore(datedTask.getDate()))) {
+                appendOccurrence(result, datedTask.getDate(), datedTask);
+                datedPos++;
+                continue;
+            }
+            rules.poll();
+            LocalDateTime occurrence = nextOccurrences.get(rule);
+            appendOccurrence(result, occurrence, rule);
+            LocalDateTime next = rule.getNextOccurrence(occurrence);
+            if (next.isBefore(to)) {
+                nextOccurrences.put(rule, next);
+                rules.add(rule);
             }
         }
 
         if (result.length() == 0) {
-            return "No results match your search.";
+            return "No tasks are coming up.";
         }
+        return "These tasks are coming up:" + result;
+    }
 
-        // delete the overflow \n from the last append operation
-        if (result.charAt(result.length() - 1) == '\n') {
-            result.deleteCharAt(result.length() - 1);
+    /**
+     * Completes the word to the word used in the most descriptions in the list that starts with it.
+     * <p>The word is looked up in a radix tree of the words in the descriptions, kept up to date as
+     * Tasks are added and deleted, so the lookup only depends on the length of the words, and is cheap
+     * enough to run on every keystroke. If the indexes were deferred by a lazy load, they are only built
+     * here for lists of up to MAX_TASKS_INDEXED_ON_COMPLETION Tasks. Longer lists complete no word until
+     * the first search builds them, so a keystroke never waits long on parsing the list.</p>
+     *
+     * @param prefix The start of the word, in any case.
+     * @return The completed word in lowercase, or null if no word in the list starts with the prefix.
+     */
+    public String completeWord(String prefix) {
+        if (!areSearchIndexesBuilt && tasks.size() > MAX_TASKS_INDEXED_ON_COMPLETION) {
+            return null;
         }
+        buildSearchIndexes();
+        return wordTrie.complete(prefix.toLowerCase(Locale.ROOT));
+    }
 
-        return result.toString();
+    /**
+     * Returns a UI-friendly String representation of the incomplete dated Tasks that are due first.
+     * <p>The Tasks are read from the due heap, in O(K log K) for K Tasks, however long the list is.
+     * Deadlines are ordered by their deadline and Events by their start date, including those that
+     * have passed, so overdue Tasks come first. Recurring tasks are not included, as their next
+     * occurrence depends on the time asked, and are listed by listUpcoming instead.</p>
+     *
+     * @param count The number of Tasks to list, which must be positive.
+     * @return A String representation of the earliest Tasks, to pass directly into Ui.
+     */
+    public String listAgenda(int count) {
+        buildSearchIndexes();
+        return responseCache.get("agenda " + count, version, () -> {
+            List<Task> dueTasks = dueQueue.getEarliest(count);
+            if (dueTasks.isEmpty()) {
+                return "You have no incomplete deadlines or events.";
+            }
+            StringBuilder result = new StringBuilder("These are next on your agenda:");
+            for (Task task : dueTasks) {
+                appendOccurrence(result, task.getDate(), task);
+            }
+            return result.toString();
+        });
     }
 
     /**
-     * Returns a UI-friendly String representation of the Task List.
+     * Returns a UI-friendly String representation of every pair of incomplete Events that overlap.
+     * <p>The pairs are found by a sweep over the interval index in order of start date, in
+     * O(N log N + K) for N Events and K overlapping pairs.</p>
      *
-     * @return A String representation of the Task List, to pass directly into Ui.
+     * @return A String representation of the overlapping pairs, to pass directly into Ui.
      */
-    public String list() {
-        if (tasks.size() == 0) {
-            return "No tasks have been added to the list yet.";
+    public String listConflicts() {
+        buildSearchIndexes();
+        List<Task[]> pairs = eventIntervals.getOverlappingPairs(event -> !event.isDone());
+        if (pairs.isEmpty()) {
+            return "None of your events overlap.";
         }
-        return "I am tracking these tasks:\n" + getListOfTasks(tasks);
+
+        StringBuilder result = new StringBuilder("These events overlap:");
+        for (Task[] pair : pairs) {
+            result.append("\n");
+            result.append(idSlots.get(pair[0].getId()) + 1);
+            result.append(". ");
+            result.append(pair[0]);
+            result.append("\n  and ");
+            result.append(idSlots.get(pair[1].getId()) + 1);
+            result.append(". ");
+            result.append(pair[1]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns a UI-friendly summary of the number of Tasks in the list, by status.
+     *
+     * @return The summary String, to pass directly into Ui.
+     */
+    public String getStats() {
+        int doneCount = statusBitmap.count(true);
+        return "I am tracking " + tasks.size() + " task(s):\n"
+                + "  " + doneCount + " completed\n"
+                + "  " + (tasks.size() - doneCount) + " incomplete";
+    }
+
+    /**
+     * Gets the version of the list, which increases with every modification to the list.
+     *
+     * @return The number of modifications made to the list.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public String getWorkspace() {
+        return workspace;
+    }
+
+    public void setWorkspace(String workspace) {
+        this.workspace = workspace;
+    }
+
+    /**
+     * Gets the number of Tasks in the list.
+     *
+     * @return The number of Tasks.
+     */
+    public int getSize() {
+        return tasks.size();
     }
 
     /**
@@ -212,7 +735,54 @@ public class TaskList {
      * @param task The Task to add into TaskList.
      */
     public void importSave(Task task) {
-        tasks.add(task);
+        if (task.getId() == 0) {
+            task.setId(nextId);
+        }
+        nextId = Math.max(nextId, task.getId() + 1);
+        appendTask(task);
+    }
+
+    /**
+     * Gets the ID to assign to the next Task added into the list.
+     * <p>This is a method used by Storage, to persist the ID counter so that IDs are
+     * never reused, even if the Task with the highest ID is deleted.</p>
+     *
+     * @return The next ID.
+     */
+    public int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Raises the ID to assign to the next Task added into the list.
+     * <p>This is a method used by Storage. The ID counter never decreases.</p>
+     *
+     * @param nextId The persisted ID counter.
+     */
+    public void setNextId(int nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    /**
+     * Exports all items in the TaskList as JSON, for machine consumers of the Task List.
+     * <p>The JSON is an object of the version of the list and the array of Tasks, in list order,
+     * so the index of a Task is its position in the array plus one. Like the list responses,
+     * the JSON is cached until the list is next modified.</p>
+     *
+     * @return The JSON representation of the TaskList.
+     * @see Task#appendJson(StringBuilder)
+     */
+    public String exportJson() {
+        return responseCache.get("json", version, () -> {
+            StringBuilder json = new StringBuilder("{\"version\":").append(version).append(",\"tasks\":[");
+            for (int i = 0; i < tasks.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                tasks.get(i).appendJson(json);
+            }
+            return json.append("]}").toString();
+        });
     }
 
     /**
@@ -243,6 +813,506 @@ public class TaskList {
         return tasks.get(index - 1);
     }
 
+    /**
+     * Picks the smallest set of Tasks that must contain every match to the query.
+     *
+     * @param query The compiled structured query.
+     * @return The candidate Tasks to evaluate the query on, which is the full list
+     *         if no index can narrow it down.
+     */
+    private Collection<Task> selectCandidates(TaskQuery query) {
+        Collection<Task> candidates = tasks;
+
+        if (query.getTypeFlag() != null) {
+            HashSet<Task> tasksOfType = typeIndex.getOrDefault(query.getTypeFlag(), new HashSet<>());
+            if (tasksOfType.size() < candidates.size()) {
+                candidates = tasksOfType;
+            }
+        }
+
+        for (String keyword : query.getKeywords()) {
+            // a description containing the keyword contains each of its runs of letters and digits within a word
+            String fragment = getLongestWordRun(keyword);
+            if (fragment.isEmpty()) {
+                continue;
+            }
+            Set<Task> tasksWithFragment = fuzzyIndex.getTasksWithWordContaining(fragment);
+            if (tasksWithFragment.size() < candidates.size()) {
+                candidates = tasksWithFragment;
+            }
+        }
+
+        if (query.hasDateFilter()) {
+            // Recurring tasks are not in the date index, so every rule is a date candidate
+            HashSet<Task> rules = typeIndex.getOrDefault("R", new HashSet<>());
+            int dateCount = dateIndex.countBetween(query.getAfter(), query.getBefore(), candidates.size());
+            if (dateCount + rules.size() < candidates.size()) {
+                List<Task> datedTasks = dateIndex.getBetween(query.getAfter(), query.getBefore());
+                datedTasks.addAll(rules);
+                candidates = datedTasks;
+            }
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Gets the longest run of letters and digits in the keyword, case-folded as the words of the fuzzy index are.
+     *
+     * @param keyword The keyword of a structured query.
+     * @return The longest run, or an empty String if the keyword has no letters or digits.
+     */
+    private static String getLongestWordRun(String keyword) {
+        String longest = "";
+        for (String run : keyword.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (run.length() > longest.length()) {
+                longest = run;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Renders the Tasks matching the structured query, evaluating it on the smallest candidate set.
+     *
+     * @param query The compiled structured query.
+     * @return A String representation of all the Tasks matching the query, in list form.
+     */
+    private String renderMatches(TaskQuery query) {
+        buildSearchIndexes();
+        Collection<Task> candidates = selectCandidates(query);
+        Boolean isDone = query.getIsDone();
+        if (isDone != null && statusBitmap.count(isDone) < candidates.size()) {
+            return getListOfMatchesByStatus(isDone, query);
+        }
+        if (candidates == tasks) {
+            return getListOfMatches(tasks, query::matches);
+        }
+
+        ArrayList<Integer> matchPositions = new ArrayList<>();
+        for (Task task : candidates) {
+            if (query.matches(task)) {
+                matchPositions.add(idSlots.get(task.getId()));
+            }
+        }
+        matchPositions.sort(null);
+        return getListOfPositions(matchPositions);
+    }
+
+    /**
+     * Renders the Tasks that best match the query, in ranked order.
+     *
+     * @param query The query to match against the words in the description of the Task.
+     * @return A String representation of the best matching Tasks.
+     */
+    private String renderFuzzyMatches(String query) {
+        buildSearchIndexes();
+        List<Task> matches = fuzzyIndex.search(query, FUZZY_RESULT_LIMIT);
+        if (matches.isEmpty()) {
+            return "No results match your search.";
+        }
+
+        StringBuilder result = new StringBuilder("These tasks are the closest matches:");
+        for (Task task : matches) {
+            result.append("\n");
+            result.append(idSlots.get(task.getId()) + 1);
+            result.append(". ");
+            result.append(task);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Renders the Task List in the given order, building the sorted view on first use.
+     *
+     * @param key The sort key of the order.
+     * @param order The order of the sort key.
+     * @return A String representation of the sorted Task List.
+     */
+    private String renderSorted(String key, Comparator<Task> order) {
+        if (tasks.size() == 0) {
+            return "No tasks have been added to the list yet.";
+        }
+
+        SortedView view = sortedViews.computeIfAbsent(key, k -> new SortedView(order, tasks));
+        StringBuilder result = new StringBuilder("I am tracking these tasks, sorted by " + key + ":");
+        for (Task task : view.getTasks()) {
+            result.append("\n");
+            result.append(idSlots.get(task.getId()) + 1);
+            result.append(". ");
+            result.append(task);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Renders the Tasks with every one of the tags, found by intersecting their posting lists in the tag index.
+     *
+     * @param tagString The tags as entered by the user, to be shown in the reply.
+     * @param tags The distinct tags to match, in lowercase and without the # prefix.
+     * @return A String representation of the matching Tasks, in list order.
+     */
+    private String renderByTags(String tagString, List<String> tags) {
+        buildSearchIndexes();
+        int[] ids = tagIndex.getIdsWithAll(tags);
+        if (ids.length == 0) {
+            return "No tasks are tagged " + tagString + ".";
+        }
+
+        ArrayList<Integer> positions = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            positions.add(idSlots.get(id));
+        }
+        // list order follows ID order as Tasks are appended, but sorting keeps the display in list order regardless
+        positions.sort(null);
+        return "Here are the tasks tagged " + tagString + ":\n" + getListOfPositions(positions);
+    }
+
+    /**
+     * Renders the Tasks with the given status, found from the status bitmap.
+     *
+     * @param isDone The status of the Tasks to list.
+     * @return A String representation of the matching Tasks.
+     */
+    private String renderByStatus(boolean isDone) {
+        String status = isDone ? "completed" : "incomplete";
+        if (statusBitmap.count(isDone) == 0) {
+            return "No " + status + " tasks are in the list.";
+        }
+
+        StringBuilder result = new StringBuilder("I am tracking these " + status + " tasks:");
+        for (int pos = statusBitmap.next(0, isDone); pos != -1; pos = statusBitmap.next(pos + 1, isDone)) {
+            result.append("\n");
+            result.append(pos + 1);
+            result.append(". ");
+            result.append(tasks.get(pos));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Gets the String representation of the Tasks with the given status that match the query.
+     * <p>As the status bitmap is ordered by position, no extra pass is needed to find
+     * the index of each match in the list.</p>
+     *
+     * @param isDone The status of the Tasks to check.
+     * @param query The compiled structured query.
+     * @return The matching Tasks with their index in the list, or a String indicating no matches.
+     */
+    private String getListOfMatchesByStatus(boolean isDone, TaskQuery query) {
+        StringBuilder result = new StringBuilder();
+        for (int pos = statusBitmap.next(0, isDone); pos != -1; pos = statusBitmap.next(pos + 1, isDone)) {
+            if (query.matches(tasks.get(pos))) {
+                result.append(pos + 1);
+                result.append(". ");
+                result.append(tasks.get(pos));
+                result.append("\n");
+            }
+        }
+
+        if (result.length() == 0) {
+            return "No results match your search.";
+        }
+
+        // delete the overflow \n from the last append operation
+        result.deleteCharAt(result.length() - 1);
+        return result.toString();
+    }
+
+    /**
+     * Builds the descriptions and the fuzzy, word, date, due, type and tag indexes, if they were deferred.
+     */
+    private void buildSearchIndexes() {
+        if (areSearchIndexesBuilt) {
+            return;
+        }
+        areSearchIndexesBuilt = true;
+        descriptions.ensureCapacity(tasks.size());
+        tasks.forEach(this::indexTask);
+    }
+
+    /**
+     * Adds the Task into the indexes of the TaskList.
+     * <p>Tasks must be indexed in list order, as the description is appended by position.</p>
+     *
+     * @param task The Task that was added into the list.
+     */
+    private void indexTask(Task task) {
+        if (!areSearchIndexesBuilt) {
+            return;
+        }
+        descriptions.add(task.getDescription());
+        fuzzyIndex.add(task);
+        getCompletableWords(task).forEach(wordTrie::add);
+        dateIndex.add(task);
+        dueQueue.update(task);
+        if (task.getTypeFlag().equals("E")) {
+            eventIntervals.add(task);
+        }
+        typeIndex.computeIfAbsent(task.getTypeFlag(), k -> new HashSet<>()).add(task);
+        tagIndex.add(task);
+    }
+
+    /**
+     * Removes the Task from the indexes of the TaskList.
+     *
+     * @param task The Task that was removed from the list.
+     */
+    private void unindexTask(Task task) {
+        cancelReminder(task);
+        idSlots.remove(task.getId());
+        if (!areSearchIndexesBuilt) {
+            return;
+        }
+        fuzzyIndex.remove(task);
+        getCompletableWords(task).forEach(wordTrie::remove);
+        dateIndex.remove(task);
+        dueQueue.remove(task);
+        if (task.getTypeFlag().equals("E")) {
+            eventIntervals.remove(task);
+        }
+        typeIndex.get(task.getTypeFlag()).remove(task);
+        tagIndex.remove(task);
+    }
+
+    /**
+     * Gets the distinct words in the description of the Task that are worth completing, which are
+     * the words of at least MIN_COMPLETION_LENGTH characters that start with a letter.
+     *
+     * @param task The Task to get the words of.
+     * @return The case-folded words of the description.
+     */
+    private static List<String> getCompletableWords(Task task) {
+        ArrayList<String> words = new ArrayList<>();
+        for (String word : FuzzyIndex.getWords(task.getDescription())) {
+            if (word.length() >= MIN_COMPLETION_LENGTH && Character.isLetter(word.charAt(0))) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Gets the String representation of the Tasks in the list that satisfy the predicate.
+     *
+     * @param tasks The list of Tasks to scan, in list order.
+     * @param predicate The condition for a Task to be included.
+     * @return The matching Tasks with their index in the list, or a String indicating no matches.
+     */
+    private String getListOfMatches(ArrayList<Task> tasks, Predicate<Task> predicate) {
+        ArrayList<Integer> matchPositions = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (predicate.test(tasks.get(i))) {
+                matchPositions.add(i);
+            }
+        }
+        return getListOfPositions(matchPositions);
+    }
+
+    /**
+     * Gets the String representation of the Tasks at the given positions.
+     *
+     * @param positions The positions of the Tasks in the list, starting from 0, in ascending order.
+     * @return The Tasks with their index in the list, or a String indicating no matches.
+     */
+    private String getListOfPositions(List<Integer> positions) {
+        if (positions.isEmpty()) {
+            return "No results match your search.";
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (int pos : positions) {
+            result.append(pos + 1);
+            result.append(". ");
+            result.append(tasks.get(pos).toString());
+            result.append("\n");
+        }
+
+        // delete the overflow \n from the last append operation
+        result.deleteCharAt(result.length() - 1);
+        return result.toString();
+    }
+
+    /**
+     * Appends the Task to the end of the list, and adds it into every index.
+     *
+     * @param task The Task to add, which must already have an ID.
+     */
+    private void appendTask(Task task) {
+        tasks.add(task);
+        indexTask(task);
+        statusBitmap.append(task.isDone());
+        idSlots.put(task.getId(), tasks.size() - 1);
+        sortedViews.values().forEach(view -> view.add(task));
+        scheduleReminder(task);
+        incrementalSearch = null;
+        version++;
+        publishChange(ChangeEvent.Type.ADDED, task, tasks.size());
+    }
+
+    /**
+     * Marks or unmarks every selected Task, in ascending order of index.
+     *
+     * @param indexes The set of all indexes to change, where bit i selects the index i.
+     * @param isDone The new status of the Tasks.
+     * @param errorLog The log to append the errors of Tasks that cannot be changed to.
+     * @return The Tasks that were changed.
+     */
+    private ArrayList<Task> setStatuses(BitSet indexes, boolean isDone, StringBuilder errorLog) {
+        ArrayList<Task> changedTasks = new ArrayList<>(indexes.cardinality());
+        for (int index = indexes.nextSetBit(0); index >= 0; index = indexes.nextSetBit(index + 1)) {
+            try {
+                changedTasks.add(setStatus(index, isDone));
+            } catch (TrackerBotException e) {
+                logError(errorLog, index, e.getMessage());
+            }
+        }
+        return changedTasks;
+    }
+
+    private static void logError(StringBuilder errorLog, int index, String message) {
+        errorLog.append("\n");
+        errorLog.append(index);
+        errorLog.append(" - ");
+        errorLog.append(message);
+    }
+
+    /**
+     * Marks or unmarks the Task at the index, and updates the status bitmap, the status
+     * ordering and the reminder of the Task to match.
+     *
+     * @param index The index of the Task in the TaskList, starting from 1.
+     * @param isDone The new status of the Task.
+     * @return The Task that was marked or unmarked.
+     * @throws TrackerBotException if the Task specified does not exist, or already has the status.
+     */
+    private Task setStatus(int index, boolean isDone) throws TrackerBotException {
+        Task task = getTask(index);
+        SortedView statusView = task.isDone() != isDone ? sortedViews.get(SortedView.BY_STATUS) : null;
+        if (statusView != null) {
+            // the Task is keyed on its status in the view, so it must be removed before the status changes
+            statusView.remove(task);
+        }
+        if (isDone) {
+            task.markTask();
+        } else {
+            task.unmarkTask();
+        }
+        statusBitmap.set(index - 1, isDone);
+        version++;
+        publishChange(isDone ? ChangeEvent.Type.MARKED : ChangeEvent.Type.UNMARKED, task, index);
+        if (statusView != null) {
+            statusView.add(task);
+        }
+        if (areSearchIndexesBuilt) {
+            dueQueue.update(task);
+        }
+
+        if (isDone) {
+            cancelReminder(task);
+        } else {
+            scheduleReminder(task);
+        }
+        return task;
+    }
+
+    private void publishChange(ChangeEvent.Type type, Task task, int position) {
+        if (changeFeed != null) {
+            changeFeed.publish(type, task, position);
+        }
+    }
+
+    private void scheduleReminder(Task task) {
+        if (reminders != null) {
+            reminders.schedule(task);
+        }
+    }
+
+    private void cancelReminder(Task task) {
+        if (reminders != null) {
+            reminders.cancel(task);
+        }
+    }
+
+    /**
+     * Removes every position marked in the mask from the list and the status bitmap,
+     * in one compaction pass.
+     * <p>The removed Tasks must still be unindexed by the caller.</p>
+     *
+     * @param isRemoved The positions to remove, where bit i marks the position i, starting from 0.
+     * @param firstRemoved The first position marked for removal, starting from 0.
+     */
+    private void removePositions(BitSet isRemoved, int firstRemoved) {
+        version++;
+        // removals are published from the last position, so each position is still valid when applied
+        for (int pos = isRemoved.previousSetBit(tasks.size() - 1); pos >= 0; pos = isRemoved.previousSetBit(pos - 1)) {
+            publishChange(ChangeEvent.Type.REMOVED, tasks.get(pos), pos + 1);
+        }
+        int kept = firstRemoved;
+        for (int i = firstRemoved; i < tasks.size(); i++) {
+            if (!isRemoved.get(i)) {
+                if (areSearchIndexesBuilt) {
+                    descriptions.set(kept, descriptions.get(i));
+                }
+                tasks.set(kept++, tasks.get(i));
+            }
+        }
+        tasks.subList(kept, tasks.size()).clear();
+        if (areSearchIndexesBuilt) {
+            descriptions.subList(kept, descriptions.size()).clear();
+        }
+        statusBitmap.removeAll(isRemoved);
+        incrementalSearch = null;
+        updateSlotsFrom(firstRemoved);
+    }
+
+    /**
+     * Updates the ID to position mapping of every Task from the position onwards.
+     * <p>This is called after deletion, as every Task after a deleted Task shifts down.
+     * It costs the same order of work as the shift done by ArrayList.remove.</p>
+     *
+     * @param start The first position to update, starting from 0.
+     */
+    private void updateSlotsFrom(int start) {
+        for (int i = start; i < tasks.size(); i++) {
+            idSlots.put(tasks.get(i).getId(), i);
+        }
+    }
+
+    /**
+     * Gets a warning listing the incomplete Events that overlap the new Task, if it is an Event.
+     * <p>Only Events added before the new Task are listed, as the warning may be rendered after
+     * the rest of a mass add.</p>
+     *
+     * @param newTask The Task that was added into the list.
+     * @return The warning to append to the reply, or an empty String if nothing overlaps.
+     */
+    private String getConflictWarning(Task newTask) {
+        if (!newTask.getTypeFlag().equals("E")) {
+            return "";
+        }
+        buildSearchIndexes();
+        StringBuilder warning = new StringBuilder();
+        for (Task event : eventIntervals.getOverlapping(newTask.getDate(), newTask.getEndDate())) {
+            if (event.getId() < newTask.getId() && !event.isDone()) {
+                warning.append("\n");
+                warning.append(idSlots.get(event.getId()) + 1);
+                warning.append(". ");
+                warning.append(event);
+            }
+        }
+        return warning.length() == 0 ? "" : "\nHeads up, it overlaps with these events:" + warning;
+    }
+
+    private void appendOccurrence(StringBuilder result, LocalDateTime date, Task task) {
+        result.append("\n");
+        result.append(TaskDateHandler.convertDateToUi(date));
+        result.append(" - ");
+        result.append(idSlots.get(task.getId()) + 1);
+        result.append(". ");
+        result.append(task);
+    }
+
     /**
      * Gets the String representation of the TaskList.
      *
@@ -0,0 +1,189 @@
+package trackerbot.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.utils.TaskDateHandler;
+
+/**
+ * Compiled form of a structured find query, such as "type:D done:no by&lt;20/10 report".
+ * <p>A query is made of whitespace separated terms, and a Task must satisfy every term:</p>
+ * <ul>
+ *     <li>type:T, type:D, type:E or type:R restricts the type of the Task.</li>
+ *     <li>done:yes or done:no restricts the completion status of the Task.</li>
+ *     <li>by&lt;DATE and by&gt;DATE restrict the date of the Task, exclusive of DATE.
+ *     A Deadline is dated by its deadline, an Event by its start date, and a Recurring
+ *     task by any of its occurrences.</li>
+ *     <li>Any other term is a keyword, which must appear in the description, as by the
+ *     substring search of find.</li>
+ * </ul>
+ * <p>The query is compiled once into a chain of predicates, ordered from the cheapest
+ * check to the most expensive. TaskList then evaluates the chain on the smallest candidate
+ * set that its indexes can provide for the query, instead of on every Task.</p>
+ *
+ * <p>Cost model, for a list of N Tasks with the query matching M of them:</p>
+ * <ul>
+ *     <li>The type and status candidate sets are sized in O(1) each, with the status set
+ *     counted by popcount over the status bitmap in O(N / 64).</li>
+ *     <li>The keyword candidate set is gathered from the indexed words containing the
+ *     keyword, in O(V) for V distinct words, which is usually far fewer than N.</li>
+ *     <li>The date candidate set is sized by walking the date range, capped at the size of
+ *     the smallest candidate set so far, so it never costs more than the scan it replaces.</li>
+ *     <li>The predicate chain is then evaluated on the C Tasks of the smallest candidate set,
+ *     for O(C) total work, where M &lt;= C &lt;= N.</li>
+ * </ul>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class TaskQuery {
+    /** Matches the terms of a query that are filters rather than keywords. */
+    private static final Pattern FILTER_TERM = Pattern.compile("^(type:|done:|by<|by>).*");
+
+    private String typeFlag;
+    private Boolean isDone;
+    private LocalDateTime after;
+    private LocalDateTime before;
+    private final List<String> keywords = new ArrayList<>();
+    private Predicate<Task> predicate;
+
+    private TaskQuery() {}
+
+    /**
+     * Checks if the query uses any structured filter terms.
+     * <p>Queries without filter terms are left to the plain substring search of find.</p>
+     *
+     * @param query The query input by the user.
+     * @return true, if any term in the query is a filter, and false otherwise.
+     */
+    public static boolean isStructured(String query) {
+        for (String term : query.trim().split("\\s+")) {
+            if (FILTER_TERM.matcher(term).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compiles the query into a chain of predicates.
+     *
+     * @param query The query input by the user.
+     * @return The compiled TaskQuery.
+     * @throws TrackerBotException if any filter term in the query is invalid.
+     */
+    public static TaskQuery compile(String query) throws TrackerBotException {
+        TaskQuery result = new TaskQuery();
+        for (String term : query.trim().split("\\s+")) {
+            result.parseTerm(term);
+        }
+        result.predicate = result.buildPredicate();
+        return result;
+    }
+
+    private void parseTerm(String term) throws TrackerBotException {
+        if (term.startsWith("type:")) {
+            typeFlag = parseType(term.substring("type:".length()));
+        } else if (term.startsWith("done:")) {
+            isDone = parseDone(term.substring("done:".length()));
+        } else if (term.startsWith("by<")) {
+            before = TaskDateHandler.convertInputToDate(term.substring("by<".length()));
+        } else if (term.startsWith("by>")) {
+            after = TaskDateHandler.convertInputToDate(term.substring("by>".length()));
+        } else {
+            keywords.add(term);
+        }
+    }
+
+    private static String parseType(String value) throws TrackerBotException {
+        String flag = value.toUpperCase(Locale.ROOT);
+        if (!flag.equals("T") && !flag.equals("D") && !flag.equals("E") && !flag.equals("R")) {
+            throw new TrackerBotException("Invalid filter: type:[T/D/E/R]");
+        }
+        return flag;
+    }
+
+    private static Boolean parseDone(String value) throws TrackerBotException {
+        switch (value.toLowerCase(Locale.ROOT)) {
+        case "yes":
+            return true;
+        case "no":
+            return false;
+        default:
+            throw new TrackerBotException("Invalid filter: done:[yes/no]");
+        }
+    }
+
+    /**
+     * Chains the filters of the query, with the cheapest checks evaluated first.
+     *
+     * @return The predicate that a Task must satisfy to match the query.
+     */
+    private Predicate<Task> buildPredicate() {
+        Predicate<Task> chain = task -> true;
+        if (isDone != null) {
+            boolean expected = isDone;
+            chain = chain.and(task -> task.isDone() == expected);
+        }
+        if (typeFlag != null) {
+            chain = chain.and(task -> task.getTypeFlag().equals(typeFlag));
+        }
+        if (after != null || before != null) {
+            chain = chain.and(task -> task.isDatedBetween(after, before));
+        }
+        if (!keywords.isEmpty()) {
+            chain = chain.and(task -> keywords.stream().allMatch(task::doesContain));
+        }
+        return chain;
+    }
+
+    /**
+     * Checks if the Task satisfies every term of the query.
+     *
+     * @param task The Task to check.
+     * @return true, if the Task matches the query, and false otherwise.
+     */
+    boolean matches(Task task) {
+        return predicate.test(task);
+    }
+
+    String getTypeFlag() {
+        return typeFlag;
+    }
+
+    Boolean getIsDone() {
+        return isDone;
+    }
+
+    LocalDateTime getAfter() {
+        return after;
+    }
+
+    LocalDateTime getBefore() {
+        return before;
+    }
+
+    boolean hasDateFilter() {
+        return after != null || before != null;
+    }
+
+    List<String> getKeywords() {
+        return Collections.unmodifiableList(keywords);
+    }
+
+    /**
+     * Gets a key identifying the query by its resolved terms, so that queries written
+     * differently but matching the same Tasks share a cached response.
+     *
+     * @return The cache key of the query.
+     */
+    String getCacheKey() {
+        return "type:" + typeFlag + " done:" + isDone + " by>" + after + " by<" + before + " " + keywords;
+    }
+}
@@ -30,9 +30,19 @@ public class Todo extends Task {
         super(args);
     }
 
+    @Override
+    public String getTypeFlag() {
+        return "T";
+    }
+
+    @Override
+    protected int getSaveArgCount() {
+        return 2;
+    }
+
     @Override
     public String toSaveString() {
-        return "T|" + getSaveInfo();
+        return "T|" + getSaveInfo() + getSaveId();
     }
 
     /**
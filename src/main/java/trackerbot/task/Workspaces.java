@@ -0,0 +1,165 @@
+package trackerbot.task;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import trackerbot.exception.TrackerBotException;
+import trackerbot.utils.Storage;
+
+/**
+ * Named workspaces, each with a TaskList and save file of its own, loaded on first use.
+ * <p>The loaded workspaces are kept in least-recently-used order, under a budget on the total
+ * number of Tasks loaded. When switching workspaces pushes the total over the budget, the least
+ * recently used workspaces are saved and dropped from memory, so memory scales with the
+ * workspaces in use, rather than with every workspace ever created. The workspace in use is
+ * never dropped, no matter how large it is.</p>
+ * <p>Each workspace remembers the version of its TaskList when it was last read or saved,
+ * so workspaces that have not changed since are never written again.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ * @see Storage
+ */
+public class Workspaces {
+    /** The workspace used at startup, which is saved where TrackerBot has always saved its Task List. */
+    public static final String DEFAULT_WORKSPACE = "default";
+
+    private final long taskBudget;
+
+    /** The loaded workspaces, from the least to the most recently used. */
+    private final LinkedHashMap<String, TaskList> loaded = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The version of the TaskList of each loaded workspace, when it was last read or saved. */
+    private final HashMap<String, Long> savedVersions = new HashMap<>();
+
+    /**
+     * Constructs Workspaces with the default workspace loaded.
+     *
+     * @param defaultTasks The TaskList of the default workspace.
+     * @param taskBudget The number of Tasks to keep loaded, beyond which idle workspaces are dropped.
+     */
+    public Workspaces(TaskList defaultTasks, long taskBudget) {
+        this.taskBudget = taskBudget;
+        put(DEFAULT_WORKSPACE, defaultTasks);
+    }
+
+    /**
+     * Replaces the TaskList of a workspace with one that has just been read from its save file.
+     *
+     * @param name The name of the workspace.
+     * @param tasks The TaskList of the workspace.
+     */
+    public void put(String name, TaskList tasks) {
+        tasks.setWorkspace(name);
+        loaded.put(name, tasks);
+        savedVersions.put(name, tasks.getVersion());
+    }
+
+    /**
+     * Gets the TaskList of a workspace, reading it from its save file if it is not loaded.
+     * <p>A workspace without a save file starts empty. Idle workspaces are then dropped until
+     * the Tasks loaded fit the budget again, as the workspace in use may have grown since the last switch.</p>
+     *
+     * @param name The name of the workspace.
+     * @return The TaskList of the workspace.
+     * @throws TrackerBotException if the save file of the workspace cannot be read.
+     */
+    public TaskList get(String name) throws TrackerBotException {
+        TaskList tasks = loaded.get(name);
+        if (tasks == null) {
+            tasks = new TaskList();
+            tasks.setWorkspace(name);
+            Storage.readLazily(tasks);
+            put(name, tasks);
+        }
+        evictIdle(tasks);
+        return tasks;
+    }
+
+    /**
+     * Archives the completed Tasks of every loaded workspace, and saves the workspaces that changed.
+     * <p>Every workspace is saved, even if an earlier one fails, and the first failure is thrown
+     * once all of them are done.</p>
+     *
+     * @param cutoff The date that archived Tasks must be dated before.
+     * @throws TrackerBotException if any workspace fails to archive or save.
+     */
+    public void saveAll(LocalDateTime cutoff) throws TrackerBotException {
+        TrackerBotException failure = null;
+        for (Map.Entry<String, TaskList> entry : loaded.entrySet()) {
+            try {
+                archiveAndSave(entry.getKey(), entry.getValue(), cutoff);
+            } catch (TrackerBotException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Saves the TaskList of a loaded workspace, if it changed since it was last read or saved.
+     *
+     * @param tasks The TaskList of the workspace.
+     * @throws TrackerBotException if the save file of the workspace cannot be written.
+     */
+    public void save(TaskList tasks) throws TrackerBotException {
+        save(tasks.getWorkspace(), tasks);
+    }
+
+    /**
+     * Drops the least recently used workspaces, other than the one in use, until the budget is met.
+     * <p>A workspace that fails to save is kept loaded, so its changes are not lost, and saving
+     * is attempted again on the next save.</p>
+     *
+     * @param inUse The TaskList of the workspace in use.
+     */
+    private void evictIdle(TaskList inUse) {
+        long loadedTasks = 0;
+        for (TaskList tasks : loaded.values()) {
+            loadedTasks += tasks.getSize();
+        }
+
+        Iterator<Map.Entry<String, TaskList>> eldest = loaded.entrySet().iterator();
+        while (loadedTasks > taskBudget && eldest.hasNext()) {
+            Map.Entry<String, TaskList> entry = eldest.next();
+            if (entry.getValue() == inUse) {
+                continue;
+            }
+            try {
+                save(entry.getKey(), entry.getValue());
+            } catch (TrackerBotException e) {
+                continue;
+            }
+            loadedTasks -= entry.getValue().getSize();
+            savedVersions.remove(entry.getKey());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Archives the completed Tasks of the workspace, then saves it straight away.
+     * <p>The archive is appended first, so a crash between the two writes can leave Tasks in both
+     * the archive and the save file, but never in neither.</p>
+     */
+    private void archiveAndSave(String name, TaskList tasks, LocalDateTime cutoff) throws TrackerBotException {
+        try {
+            Storage.archive(tasks, cutoff);
+        } finally {
+            // Tasks that failed to archive are still in the list, so they are saved as usual
+            save(name, tasks);
+        }
+    }
+
+    private void save(String name, TaskList tasks) throws TrackerBotException {
+        if (savedVersions.get(name) == tasks.getVersion()) {
+            return;
+        }
+        Storage.save(tasks);
+        savedVersions.put(name, tasks.getVersion());
+    }
+}
@@ -0,0 +1,251 @@
+package trackerbot.utils;
+
+import java.util.Arrays;
+
+/**
+ * Radix tree of words, for completing a prefix to the most used word starting with it.
+ * <p>Each edge is labelled with a run of characters rather than a single character, so a chain
+ * of nodes with one child each is stored as a single edge, and the tree has at most twice as many
+ * nodes as distinct words. Each word keeps a count of how many times it was added, and each node
+ * keeps the highest count in its subtree, so the most used completion is found by following the
+ * child holding that count from the end of the prefix, without visiting any other branch.</p>
+ * <p>Completing a prefix, adding a word and removing a word each cost O(L * A), for words of
+ * length L and an alphabet of A characters branching from each node, however many words are stored.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class CompletionTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("");
+
+    /**
+     * Adds one use of the word.
+     *
+     * @param word The word to add, which must not be empty.
+     */
+    public void add(String word) {
+        Node[] path = new Node[word.length() + 1];
+        int depth = 0;
+        Node node = root;
+        path[depth++] = node;
+        int pos = 0;
+        while (pos < word.length()) {
+            Node child = node.getChild(word.charAt(pos));
+            if (child == null) {
+                child = new Node(word.substring(pos));
+                node.addChild(child);
+                pos = word.length();
+            } else {
+                int common = getCommonLength(child.label, word, pos);
+                if (common < child.label.length()) {
+                    child = node.split(child, common);
+                }
+                pos += common;
+            }
+            node = child;
+            path[depth++] = node;
+        }
+
+        node.count++;
+        for (int i = depth - 1; i >= 0; i--) {
+            path[i].bestCount = Math.max(path[i].bestCount, node.count);
+        }
+    }
+
+    /**
+     * Removes one use of the word, dropping the word once it has no uses left.
+     *
+     * @param word The word to remove.
+     */
+    public void remove(String word) {
+        Node[] path = new Node[word.length() + 1];
+        int depth = 0;
+        Node node = root;
+        path[depth++] = node;
+        int pos = 0;
+        while (pos < word.length()) {
+            node = node.getChild(word.charAt(pos));
+            if (node == null || !word.startsWith(node.label, pos)) {
+                return;
+            }
+            pos += node.label.length();
+            path[depth++] = node;
+        }
+        if (node.count == 0) {
+            return;
+        }
+
+        node.count--;
+        for (int i = depth - 1; i > 0; i--) {
+            Node child = path[i];
+            if (child.count == 0 && child.children.length == 0) {
+                path[i - 1].removeChild(child);
+            } else if (child.count == 0 && child.children.length == 1) {
+                path[i - 1].merge(child);
+            }
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            path[i].updateBestCount();
+        }
+    }
+
+    /**
+     * Removes every word.
+     */
+    public void clear() {
+        root.children = NO_CHILDREN;
+        root.bestCount = 0;
+    }
+
+    /**
+     * Gets the most used word starting with the prefix.
+     * <p>Ties are broken in favour of the alphabetically earliest word.</p>
+     *
+     * @param prefix The prefix to complete.
+     * @return The most used word starting with the prefix, which may be the prefix itself,
+     *         or null if no word starts with the prefix.
+     */
+    public String complete(String prefix) {
+        StringBuilder word = new StringBuilder(prefix.length() + 16);
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            node = node.getChild(prefix.charAt(pos));
+            if (node == null) {
+                return null;
+            }
+            int common = getCommonLength(node.label, prefix, pos);
+            if (pos + common < prefix.length() && common < node.label.length()) {
+                return null;
+            }
+            word.append(node.label);
+            pos += common;
+        }
+
+        while (node.count < node.bestCount) {
+            for (Node child : node.children) {
+                if (child.bestCount == node.bestCount) {
+                    node = child;
+                    break;
+                }
+            }
+            word.append(node.label);
+        }
+        return node.count == 0 ? null : word.toString();
+    }
+
+    /**
+     * Gets the length of the common prefix of the label, and the word from the position onwards.
+     */
+    private static int getCommonLength(String label, String word, int pos) {
+        int length = Math.min(label.length(), word.length() - pos);
+        for (int i = 0; i < length; i++) {
+            if (label.charAt(i) != word.charAt(pos + i)) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Node of the radix tree, reached from its parent by an edge labelled with its label.
+     */
+    private static class Node {
+        private String label;
+
+        /** The children of the node, in order of the first character of their label. */
+        private Node[] children = NO_CHILDREN;
+
+        /** The number of uses of the word ending at this node, or 0 if no word ends here. */
+        private int count = 0;
+
+        /** The highest count of any word in the subtree of this node. */
+        private int bestCount = 0;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node getChild(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midFirst = children[mid].label.charAt(0);
+                if (midFirst == first) {
+                    return children[mid];
+                } else if (midFirst < first) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return null;
+        }
+
+        private void addChild(Node child) {
+            char first = child.label.charAt(0);
+            int pos = 0;
+            while (pos < children.length && children[pos].label.charAt(0) < first) {
+                pos++;
+            }
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            newChildren[pos] = child;
+            System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+            children = newChildren;
+        }
+
+        private void removeChild(Node child) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    Node[] newChildren = Arrays.copyOf(children, children.length - 1);
+                    System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+                    children = newChildren;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Splits the edge to the child after its first characters, so a word can branch off there.
+         *
+         * @return The new node in the middle of the edge.
+         */
+        private Node split(Node child, int length) {
+            Node middle = new Node(child.label.substring(0, length));
+            child.label = child.label.substring(length);
+            middle.children = new Node[] {child};
+            middle.bestCount = child.bestCount;
+            replaceChild(child, middle);
+            return middle;
+        }
+
+        /**
+         * Merges the child, which ends no word, into the edge to its only child.
+         */
+        private void merge(Node child) {
+            Node grandchild = child.children[0];
+            grandchild.label = child.label + grandchild.label;
+            replaceChild(child, grandchild);
+        }
+
+        private void replaceChild(Node child, Node replacement) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    children[i] = replacement;
+                    return;
+                }
+            }
+        }
+
+        private void updateBestCount() {
+            bestCount = count;
+            for (Node child : children) {
+                bestCount = Math.max(bestCount, child.bestCount);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package trackerbot.utils;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contains static methods to write values into JSON form.
+ * <p>TrackerBot only ever writes flat objects of strings, numbers, booleans and dates,
+ * so the values are written directly into the caller's StringBuilder instead of
+ * through a JSON library.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class Json {
+    /** Prevent the instantiation of Json object. **/
+    private Json() {}
+
+    /**
+     * Appends the String as a quoted JSON string, escaping any characters that JSON requires.
+     *
+     * @param json The JSON to append to.
+     * @param value The String to append, or null to append a JSON null.
+     * @return The JSON, for chaining.
+     */
+    public static StringBuilder appendString(StringBuilder json, String value) {
+        if (value == null) {
+            return json.append("null");
+        }
+
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+            }
+        }
+        return json.append('"');
+    }
+
+    /**
+     * Appends the date as a quoted ISO-8601 date-time string.
+     *
+     * @param json The JSON to append to.
+     * @param date The date to append, or null to append a JSON null.
+     * @return The JSON, for chaining.
+     */
+    public static StringBuilder appendDate(StringBuilder json, LocalDateTime date) {
+        return appendString(json, date == null ? null : date.toString());
+    }
+}
@@ -1,13 +1,21 @@
 package trackerbot.utils;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Scanner;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import trackerbot.command.Command;
 import trackerbot.command.CommandType;
 import trackerbot.exception.TrackerBotException;
 import trackerbot.task.Deadline;
 import trackerbot.task.Event;
+import trackerbot.task.Recurring;
 import trackerbot.task.Task;
+import trackerbot.task.TaskList;
 import trackerbot.task.Todo;
 
 /**
@@ -19,6 +27,20 @@ import trackerbot.task.Todo;
 public class Parser {
     private static final String MASS_COMMAND_DELIMITER = ";";
 
+    /** Prefix of a selector that refers to a Task by its stable ID rather than its index. */
+    private static final String ID_PREFIX = "#";
+
+    private static final String SELECTION_FORMAT = "Invalid format: [index/#id/#tag/start-end[/step]/all/done/todo]";
+
+    /** A tag starts with a letter, so that #ID selectors and issue numbers such as #12 are not tags. */
+    private static final String TAG_PATTERN = "#[A-Za-z][A-Za-z0-9_-]*";
+
+    /** A tag as a whole word of a description, along with the whitespace before it. */
+    private static final Pattern TAG_IN_DESCRIPTION = Pattern.compile("\\s*(?<!\\S)(" + TAG_PATTERN + ")(?!\\S)");
+
+    /** Workspace names double as folder names, so they are limited to characters safe on every file system. */
+    private static final String WORKSPACE_NAME_PATTERN = "[a-z0-9_-]{1,32}";
+
     /**
      * Splits the user input into its keyword and commandField components.
      * <p>Parser does not directly handle the Command logic of the input. After
@@ -58,10 +80,277 @@ public class Parser {
         return commandField.split(MASS_COMMAND_DELIMITER);
     }
 
+    /**
+     * Parses the name of a workspace, which is case-insensitive.
+     *
+     * @param commandField The name of the workspace, as entered by the user.
+     * @return The name of the workspace, in lowercase.
+     * @throws TrackerBotException if the name has characters other than letters, digits, - and _,
+     *                             or is longer than 32 characters.
+     */
+    public static String parseWorkspaceName(String commandField) throws TrackerBotException {
+        String name = commandField.trim().toLowerCase();
+        if (!name.matches(WORKSPACE_NAME_PATTERN)) {
+            throw new TrackerBotException("Invalid workspace name: use up to 32 letters, digits, - and _.");
+        }
+        return name;
+    }
+
+    /**
+     * Parses a list of tags, such as "#work #urgent".
+     *
+     * @param commandField The tags, separated by whitespace, each with the # prefix.
+     * @return The distinct tags in lowercase and without the # prefix, sorted.
+     * @throws TrackerBotException if any word is not a tag.
+     */
+    public static List<String> parseTags(String commandField) throws TrackerBotException {
+        TreeSet<String> tags = new TreeSet<>();
+        for (String word : commandField.trim().split("\\s+")) {
+            if (!word.matches(TAG_PATTERN)) {
+                throw new TrackerBotException("Invalid format: list #tag [#tag...], where tags start with a letter");
+            }
+            tags.add(word.substring(Task.TAG_PREFIX.length()).toLowerCase());
+        }
+        return new ArrayList<>(tags);
+    }
+
+    /**
+     * Parses the command field of an operation on a single existing Task into the index of the Task.
+     * <p>The field is either the index of the Task in the list, or its stable ID after ID_PREFIX.</p>
+     *
+     * @param commandField The index, or the #ID, of the Task.
+     * @param tasks The TaskList to find the ID in.
+     * @param format The format of the command, shown if the field is invalid.
+     * @return The index of the Task in the list, starting from 1.
+     * @throws TrackerBotException if the field is invalid, or no Task has the ID.
+     */
+    public static int parseTaskIndex(String commandField, TaskList tasks, String format) throws TrackerBotException {
+        if (commandField.startsWith(ID_PREFIX)) {
+            try {
+                return tasks.getIndexOfId(Integer.parseInt(commandField.substring(ID_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                throw new TrackerBotException("Invalid format: " + format);
+            }
+        }
+
+        Scanner scanner = new Scanner(commandField);
+        if (!scanner.hasNextInt()) {
+            scanner.close();
+            throw new TrackerBotException("Invalid format: " + format);
+        }
+        int index = scanner.nextInt();
+
+        if (scanner.hasNext()) {
+            scanner.close();
+            throw new TrackerBotException("Too many fields: " + format);
+        }
+        scanner.close();
+
+        return index;
+    }
+
+    /**
+     * Parses the command field of a mass operation on existing Tasks into the indexes it selects.
+     * <p>Each field, separated by MASS_COMMAND_DELIMITER, is one of the following selectors:</p>
+     * <ul>
+     *     <li>INDEX, or #ID, which selects a single Task</li>
+     *     <li>#TAG, which selects every Task with the tag</li>
+     *     <li>START-END, which selects every Task from START to END inclusive</li>
+     *     <li>START-END/STEP, which selects every STEP-th Task from START to END</li>
+     *     <li>all, done or todo, which select every Task, every completed Task or every
+     *     incomplete Task</li>
+     * </ul>
+     * <p>Ranges are set on the selection directly, so a range of N Tasks never creates N
+     * separate index objects. Overlapping selectors are merged, but a single Task that is
+     * selected twice is logged as a duplicate. Fields that cannot be parsed are logged and skipped.</p>
+     *
+     * @param commandField The selectors, separated by MASS_COMMAND_DELIMITER.
+     * @param tasks The TaskList the indexes refer to.
+     * @param errorLog The log to append the fields that cannot be parsed to.
+     * @return The selected indexes, where bit i selects the index i.
+     */
+    public static BitSet parseIndexSelection(String commandField, TaskList tasks, StringBuilder errorLog) {
+        BitSet selection = new BitSet(tasks.getSize() + 1);
+        for (String field : parseMassOpFields(commandField)) {
+            String selector = field.trim();
+            try {
+                addSelection(selector, tasks, selection, errorLog);
+            } catch (TrackerBotException e) {
+                errorLog.append("\n");
+                errorLog.append(selector);
+                errorLog.append(" - ");
+                errorLog.append(e.getMessage());
+            }
+        }
+        return selection;
+    }
+
+    private static void addSelection(String selector, TaskList tasks, BitSet selection, StringBuilder errorLog)
+            throws TrackerBotException {
+        switch (selector) {
+        case "all":
+            selection.set(1, tasks.getSize() + 1);
+            return;
+        case "done":
+            tasks.selectByStatus(true, selection);
+            return;
+        case "todo":
+            tasks.selectByStatus(false, selection);
+            return;
+        default:
+            break;
+        }
+
+        if (selector.matches(TAG_PATTERN)) {
+            tasks.selectByTag(selector.substring(Task.TAG_PREFIX.length()).toLowerCase(), selection);
+            return;
+        }
+
+        if (selector.startsWith(ID_PREFIX)) {
+            int index = tasks.getIndexOfId(parseSelectorInt(selector.substring(ID_PREFIX.length())));
+            addIfUnique(index, selection, errorLog);
+            return;
+        }
+
+        // a leading dash is the sign of a single index, not a range
+        int dash = selector.indexOf('-', 1);
+        if (dash == -1) {
+            int index = parseSelectorInt(selector);
+            if (index < 1 || index > tasks.getSize()) {
+                throw new TrackerBotException("The specified task does not exist.");
+            }
+            addIfUnique(index, selection, errorLog);
+            return;
+        }
+
+        int slash = selector.indexOf('/', dash);
+        int start = parseSelectorInt(selector.substring(0, dash));
+        int end = parseSelectorInt(selector.substring(dash + 1, slash == -1 ? selector.length() : slash));
+        int step = slash == -1 ? 1 : parseSelectorInt(selector.substring(slash + 1));
+        if (step < 1) {
+            throw new TrackerBotException("Invalid step: the step of a range should be positive.");
+        }
+        if (start < 1 || end > tasks.getSize() || start > end) {
+            throw new TrackerBotException("Invalid range: the range should be within 1-" + tasks.getSize() + ".");
+        }
+
+        if (step == 1) {
+            selection.set(start, end + 1);
+            return;
+        }
+        for (long index = start; index <= end; index += step) {
+            selection.set((int) index);
+        }
+    }
+
+    private static int parseSelectorInt(String field) throws TrackerBotException {
+        try {
+            return Integer.parseInt(field.trim());
+        } catch (NumberFormatException e) {
+            throw new TrackerBotException(SELECTION_FORMAT);
+        }
+    }
+
+    private static void addIfUnique(int index, BitSet selection, StringBuilder errorLog) {
+        if (selection.get(index)) {
+            errorLog.append("\n");
+            errorLog.append(index);
+            errorLog.append(" - ");
+            errorLog.append("Duplicate index!");
+        }
+        selection.set(index);
+    }
+
+    /**
+     * Parses a row of an import file into a Task.
+     * <p>A row has the fields TYPE, DESCRIPTION and then any date fields required by
+     * the type, in the same order and format as the add commands:</p>
+     * <ul>
+     *     <li>todo, DESCRIPTION</li>
+     *     <li>deadline, DESCRIPTION, BY</li>
+     *     <li>event, DESCRIPTION, FROM, TO</li>
+     * </ul>
+     * <p>Fields may be wrapped in double quotes to contain the delimiter, with a doubled
+     * quote inside a quoted field standing for a literal quote. Unlike the add commands,
+     * rows are not matched against the flag format, as the fields are already split.
+     * As with the add commands, tags in the description are taken out and set as the tags of the Task.</p>
+     *
+     * @param row The row of the import file.
+     * @param delimiter The character separating the fields in the row.
+     * @return The Task described by the row.
+     * @throws TrackerBotException if the row is in an invalid format.
+     */
+    public static Task parseImportRow(String row, char delimiter) throws TrackerBotException {
+        String[] fields = splitImportRow(row, delimiter);
+        ArrayList<String> tags = new ArrayList<>();
+        if (fields.length > 1) {
+            fields[1] = extractTags(fields[1], tags);
+        }
+
+        Task newTask;
+        CommandType type = CommandType.getCommandType(fields[0].trim().toLowerCase());
+        switch (type) {
+        case TODO:
+            checkImportFields(fields, 2, "todo" + delimiter + "[description]");
+            newTask = new Todo(fields[1].trim());
+            break;
+        case DEADLINE:
+            checkImportFields(fields, 3, "deadline" + delimiter + "[description]" + delimiter + "[end-date]");
+            newTask = new Deadline(fields[1].trim(), fields[2].trim());
+            break;
+        case EVENT:
+            checkImportFields(fields, 4, "event" + delimiter + "[description]" + delimiter
+                    + "[start-date]" + delimiter + "[end-date]");
+            newTask = new Event(fields[1].trim(), fields[2].trim(), fields[3].trim());
+            break;
+        default:
+            throw new TrackerBotException("Unknown task type: " + fields[0].trim());
+        }
+        newTask.setTags(tags);
+        return newTask;
+    }
+
+    private static void checkImportFields(String[] fields, int count, String format) throws TrackerBotException {
+        if (fields.length != count) {
+            throw new TrackerBotException("Improper format: " + format);
+        }
+        for (int i = 1; i < count; i++) {
+            if (fields[i].trim().equals("")) {
+                throw new TrackerBotException("Empty field: " + format);
+            }
+        }
+    }
+
+    private static String[] splitImportRow(String row, char delimiter) {
+        ArrayList<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            if (c == '"' && isQuoted && i + 1 < row.length() && row.charAt(i + 1) == '"') {
+                field.append('"');
+                i++;
+            } else if (c == '"') {
+                isQuoted = !isQuoted;
+            } else if (c == delimiter && !isQuoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+
+        return fields.toArray(new String[0]);
+    }
+
     /**
      * Parses the user input arising from the add keyword.
      * <p>This method further parses the user input during the add command,
      * to differentiate between the Task types.</p>
+     * <p>Words of the description that start with # and a letter, such as #work, are taken
+     * out of the description and set as the tags of the Task.</p>
      *
      * @param type The enumerated type of Command to add into the Task.
      * @param commandField The description of the Command.
@@ -69,23 +358,46 @@ public class Parser {
      * @throws TrackerBotException if the user input is in an invalid format.
      */
     public static Task parseAdd(CommandType type, String commandField) throws TrackerBotException {
+        ArrayList<String> tags = new ArrayList<>();
+        String untaggedField = extractTags(commandField, tags);
+
         Task newTask;
         switch (type) {
         case TODO:
-            newTask = createTodo(commandField);
+            newTask = createTodo(untaggedField);
             break;
         case DEADLINE:
-            newTask = createDeadline(commandField);
+            newTask = createDeadline(untaggedField);
             break;
         case EVENT:
-            newTask = createEvent(commandField);
+            newTask = createEvent(untaggedField);
+            break;
+        case RECUR:
+            newTask = createRecurring(untaggedField);
             break;
         default:
             throw new IllegalStateException("Uncaught CommandType: " + type.getKeyword());
         }
+        newTask.setTags(tags);
         return newTask;
     }
 
+    /**
+     * Takes the words that start with # and a letter, such as #work, out of the text.
+     *
+     * @param text The text to take the tags out of, such as a description.
+     * @param tags The list to add the tags to, with the # prefix, in the order they appear.
+     * @return The text without the tags, trimmed if any tag was taken out.
+     */
+    private static String extractTags(String text, List<String> tags) {
+        Matcher tagMatcher = TAG_IN_DESCRIPTION.matcher(text);
+        int tagCount = tags.size();
+        while (tagMatcher.find()) {
+            tags.add(tagMatcher.group(1));
+        }
+        return tags.size() == tagCount ? text : tagMatcher.replaceAll("").trim();
+    }
+
     private static Task createTodo(String commandField) throws TrackerBotException {
         if (commandField.equals("")) {
             throw new TrackerBotException("Cannot track task without description.");
@@ -146,4 +458,33 @@ public class Parser {
 
         return new Event(segments[0].trim(), segments[1].trim(), segments[2].trim());
     }
+
+    private static Task createRecurring(String commandField) throws TrackerBotException {
+        final String flag = "/every|/from";
+        final String format = "^.+ /every .+ /from .+";
+        String[] segments;
+
+        if (!commandField.matches(format)) {
+            throw new TrackerBotException(
+                    "Improper format: recur [description] /every [day/week/days] /from [first-date]");
+        }
+
+        segments = commandField.split(flag);
+        if (segments.length > 3) {
+            throw new TrackerBotException(
+                    "Too many flags: recur [description] /every [day/week/days] /from [first-date]");
+        }
+
+        if (segments[0].trim().equals("")) {
+            throw new TrackerBotException("Cannot track task without description");
+        }
+        if (segments[1].trim().equals("")) {
+            throw new TrackerBotException("Empty /every flag.");
+        }
+        if (segments[2].trim().equals("")) {
+            throw new TrackerBotException("Empty /from flag.");
+        }
+
+        return new Recurring(segments[0].trim(), segments[1].trim(), segments[2].trim());
+    }
 }
@@ -1,23 +1,37 @@
 package trackerbot.utils;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import trackerbot.exception.TrackerBotException;
+import trackerbot.task.SaveFileIndex;
 import trackerbot.task.Task;
+import trackerbot.task.TaskArchive;
 import trackerbot.task.TaskList;
+import trackerbot.task.Workspaces;
 
 /**
  * Contains static methods to read/write save data of TrackerBot.
- * <p>Storage will always save and load the files in the relative path:
- * [.\TrackerBot\data.txt].</p>
+ * <p>Storage will always save and load the files of the default workspace in the relative path:
+ * [.\TrackerBot\data.txt]. Every other workspace has a folder of its own, with the same files,
+ * in the relative path: [.\TrackerBot\workspaces\NAME\].</p>
  *
  * @author WZWren
  * @version A-CodeQuality
@@ -25,10 +39,29 @@ import trackerbot.task.TaskList;
 public class Storage {
     private static final String PARENT_FOLDER = "TrackerBot";
     private static final String DATA_FILE = "data.txt";
+    private static final String ARCHIVE_FILE = "archive.gz";
+    private static final String WORKSPACES_FOLDER = "workspaces";
+
+    /** Number of rows of an import file read and parsed at a time, which bounds the rows held in memory. */
+    private static final int IMPORT_CHUNK_ROWS = 4096;
 
     /** Prevent the instantiation of Storage object. */
     private Storage() {};
 
+    /**
+     * Gets the path of a file of the workspace.
+     *
+     * @param workspace The name of the workspace.
+     * @param fileName The name of the file, such as DATA_FILE.
+     * @return The path of the file, relative to the working directory.
+     */
+    private static Path getPath(String workspace, String fileName) {
+        if (workspace.equals(Workspaces.DEFAULT_WORKSPACE)) {
+            return Paths.get(PARENT_FOLDER, fileName);
+        }
+        return Paths.get(PARENT_FOLDER, WORKSPACES_FOLDER, workspace, fileName);
+    }
+
     /**
      * Parses the save string in the input file.
      * <p>The save string is generated by the Task.toSaveString
@@ -44,26 +77,63 @@ public class Storage {
         return Task.ofSaveString(args[0], Arrays.copyOfRange(args, 1, args.length));
     }
 
+    private static int parseNextId(String nextIdStr) throws TrackerBotException {
+        try {
+            return Integer.parseInt(nextIdStr);
+        } catch (NumberFormatException e) {
+            throw new TrackerBotException("Cannot parse the next ID in the save file.");
+        }
+    }
+
+    /**
+     * Reads a single line of the save format into the TaskList.
+     * <p>The line is either the header storing the next Task ID, or the save string of a Task.</p>
+     *
+     * @param line The line of the save format.
+     * @param tasks The TaskList to read the line into.
+     * @throws TrackerBotException if the line cannot be parsed.
+     * @see #formatSave(TaskList)
+     */
+    public static void importSaveLine(String line, TaskList tasks) throws TrackerBotException {
+        if (line.startsWith(SaveFileIndex.NEXT_ID_HEADER)) {
+            tasks.setNextId(parseNextId(line.substring(SaveFileIndex.NEXT_ID_HEADER.length())));
+        } else {
+            tasks.importSave(parseSaveLine(line));
+        }
+    }
+
+    /**
+     * Formats the TaskList into the save format, with the header storing the next Task ID first.
+     *
+     * @param tasks The TaskList to format.
+     * @return The contents of a save file of the TaskList.
+     */
+    public static String formatSave(TaskList tasks) {
+        return SaveFileIndex.NEXT_ID_HEADER + tasks.getNextId() + "\n" + tasks.exportSave();
+    }
+
     /**
      * Attempts to read the save data into the TrackerBot.
      * <p>The save string is generated by the Task.toSaveString
      * method, and will be parsed based on its format.</p>
-     * <p>This method will always attempt to load from the relative path:
-     * [.\TrackerBot\data.txt].</p>
+     * <p>This method will always attempt to load from the data file of the workspace of the TaskList,
+     * which is the relative path [.\TrackerBot\data.txt] for the default workspace.</p>
+     * <p>The save file may start with a header line storing the next Task ID. Save files
+     * written before Tasks had IDs have no header, and are loaded as-is.</p>
      *
      * @param tasks The TaskList to read data into.
      * @throws TrackerBotException If the save data fails to load, with specified reason.
      * @see Task#toSaveString()
      */
     public static void read(TaskList tasks) throws TrackerBotException {
-        Path path = Paths.get(PARENT_FOLDER, DATA_FILE);
+        Path path = getPath(tasks.getWorkspace(), DATA_FILE);
         if (Files.notExists(path)) {
             return;
         }
 
         try (Scanner input = new Scanner(new FileReader(path.toFile()))) {
             while (input.hasNextLine()) {
-                tasks.importSave(parseSaveLine(input.nextLine()));
+                importSaveLine(input.nextLine(), tasks);
             }
         } catch (TrackerBotException e) {
             tasks.clear();
@@ -73,16 +143,202 @@ public class Storage {
         }
     }
 
+    /**
+     * Attempts to read the save data into the TrackerBot, parsing each Task only on first use.
+     * <p>The save file is read in one go, and scanned once to index the offset, type,
+     * status and ID of every save line. The description and dates of a Task are only parsed
+     * when the Task is first displayed, searched or changed, so startup costs a single
+     * sequential scan no matter how large the save file is.</p>
+     * <p>This method will always attempt to load from the data file of the workspace of the TaskList,
+     * which is the relative path [.\TrackerBot\data.txt] for the default workspace.</p>
+     *
+     * @param tasks The TaskList to read data into.
+     * @throws TrackerBotException If the save data fails to load, with specified reason.
+     * @see SaveFileIndex
+     */
+    public static void readLazily(TaskList tasks) throws TrackerBotException {
+        Path path = getPath(tasks.getWorkspace(), DATA_FILE);
+        if (Files.notExists(path)) {
+            return;
+        }
+
+        SaveFileIndex index;
+        try {
+            index = SaveFileIndex.scan(Files.readAllBytes(path));
+        } catch (IOException e) {
+            throw new TrackerBotException("Failed to load save file: " + e.getMessage());
+        }
+
+        tasks.deferSearchIndexes();
+        tasks.setNextId(index.getNextId());
+        for (int i = 0; i < index.getSize(); i++) {
+            tasks.importSave(index.getTask(i));
+        }
+    }
+
+    /**
+     * Attempts to read the rows of a CSV or TSV file into Tasks.
+     * <p>Files ending in .tsv are split on tabs, and any other file is split on commas.
+     * Blank rows are skipped. The file is streamed in chunks of IMPORT_CHUNK_ROWS rows, and the rows
+     * of each chunk are parsed in parallel, as date parsing dominates the cost of each row. Only one
+     * chunk of rows is held at a time, along with the Tasks parsed so far, which are appended in file
+     * order. The Tasks are only returned once the whole file is read, so a file that fails to read
+     * part way imports nothing.</p>
+     * <p>Rows that fail to parse are logged into errorLog by row number, in file order,
+     * and do not prevent the other rows from being imported.</p>
+     *
+     * @param fileName The path to the file to import, relative to the working directory.
+     * @param errorLog The log to append the errors of invalid rows to.
+     * @return The Tasks parsed from the valid rows, in file order.
+     * @throws TrackerBotException If the file cannot be read.
+     * @see Parser#parseImportRow(String, char)
+     */
+    public static List<Task> readImport(String fileName, StringBuilder errorLog) throws TrackerBotException {
+        Path path = Paths.get(fileName);
+        char delimiter = fileName.toLowerCase().endsWith(".tsv") ? '\t' : ',';
+        String[] rows = new String[IMPORT_CHUNK_ROWS];
+        Task[] parsed = new Task[IMPORT_CHUNK_ROWS];
+        String[] errors = new String[IMPORT_CHUNK_ROWS];
+        ArrayList<Task> result = new ArrayList<>();
+
+        try (BufferedReader input = Files.newBufferedReader(path)) {
+            int firstRow = 1;
+            int rowCount;
+            while ((rowCount = readRows(input, rows)) > 0) {
+                parseImportRows(rows, rowCount, delimiter, parsed, errors);
+                for (int i = 0; i < rowCount; i++) {
+                    if (parsed[i] != null) {
+                        result.add(parsed[i]);
+                    } else if (errors[i] != null) {
+                        errorLog.append("\n");
+                        errorLog.append("Row ");
+                        errorLog.append(firstRow + i);
+                        errorLog.append(": ");
+                        errorLog.append(errors[i]);
+                    }
+                }
+                firstRow += rowCount;
+            }
+        } catch (IOException e) {
+            throw new TrackerBotException("Failed to read import file: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Reads the next rows of the input, until the rows are full or the input ends.
+     *
+     * @return The number of rows read, which is 0 once the input has ended.
+     */
+    private static int readRows(BufferedReader input, String[] rows) throws IOException {
+        int rowCount = 0;
+        String row;
+        while (rowCount < rows.length && (row = input.readLine()) != null) {
+            rows[rowCount++] = row;
+        }
+        return rowCount;
+    }
+
+    /**
+     * Parses the first rowCount rows in parallel, setting either the parsed Task or the error of each row.
+     * <p>Both are left null for a blank row.</p>
+     */
+    private static void parseImportRows(String[] rows, int rowCount, char delimiter, Task[] parsed, String[] errors) {
+        IntStream.range(0, rowCount).parallel().forEach(i -> {
+            parsed[i] = null;
+            errors[i] = null;
+            if (rows[i].isBlank()) {
+                return;
+            }
+            try {
+                parsed[i] = Parser.parseImportRow(rows[i], delimiter);
+            } catch (TrackerBotException e) {
+                errors[i] = e.getMessage();
+            }
+        });
+    }
+
+    /**
+     * Attempts to move the completed Tasks in the TaskList into the archive file.
+     * <p>The archive file is append-only: each call appends the save strings of the archived
+     * Tasks as a new gzip member, so earlier archives are never rewritten. The Tasks are only
+     * removed from the TaskList once they are written into the archive.</p>
+     * <p>The archived Tasks are still in the save file until the TaskList is next saved, so the
+     * caller should save it straight after, as Workspaces does.</p>
+     * <p>This method will always attempt to archive into the archive file of the workspace of the
+     * TaskList, which is the relative path [.\TrackerBot\archive.gz] for the default workspace.</p>
+     *
+     * @param tasks The TaskList to archive Tasks from.
+     * @param cutoff The date that archived Tasks must be dated before, or null to archive every
+     *               completed Task.
+     * @return The reply String to be passed into Ui.
+     * @throws TrackerBotException If the archive file fails to write, with specified reason.
+     * @see TaskList#getArchivable(LocalDateTime)
+     */
+    public static String archive(TaskList tasks, LocalDateTime cutoff) throws TrackerBotException {
+        List<Task> archivedTasks = tasks.getArchivable(cutoff);
+        if (archivedTasks.isEmpty()) {
+            return "No completed tasks are ready to be archived.";
+        }
+
+        Path path = getPath(tasks.getWorkspace(), ARCHIVE_FILE);
+        try {
+            Files.createDirectories(path.getParent());
+        } catch (IOException e) {
+            throw new TrackerBotException(e.getMessage());
+        }
+
+        try (GZIPOutputStream output = new GZIPOutputStream(new FileOutputStream(path.toFile(), true))) {
+            for (Task task : archivedTasks) {
+                output.write((task.toSaveString() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new TrackerBotException("Failed to write archive file: " + e.getMessage());
+        }
+
+        return tasks.removeArchived(archivedTasks);
+    }
+
+    /**
+     * Attempts to read every Task in the archive file.
+     * <p>The archive is only read on demand, as it is never loaded at startup.</p>
+     * <p>This method will always attempt to load from the archive file of the workspace, which is
+     * the relative path [.\TrackerBot\archive.gz] for the default workspace.</p>
+     *
+     * @param workspace The name of the workspace whose archive to read.
+     * @return The archived Tasks, which is empty if nothing has been archived yet.
+     * @throws TrackerBotException If the archive file fails to load, with specified reason.
+     */
+    public static TaskArchive readArchive(String workspace) throws TrackerBotException {
+        Path path = getPath(workspace, ARCHIVE_FILE);
+        ArrayList<Task> archivedTasks = new ArrayList<>();
+        if (Files.notExists(path)) {
+            return new TaskArchive(archivedTasks);
+        }
+
+        // GZIPInputStream reads through every appended gzip member in turn
+        try (BufferedReader input = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(path.toFile())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = input.readLine()) != null) {
+                archivedTasks.add(parseSaveLine(line));
+            }
+        } catch (IOException e) {
+            throw new TrackerBotException("Failed to load archive file: " + e.getMessage());
+        }
+        return new TaskArchive(archivedTasks);
+    }
+
     /**
      * Attempts to save TrackerBot data into a save file.
-     * <p>This method will always attempt to save into the relative path:
-     * [.\TrackerBot\data.txt].</p>
+     * <p>This method will always attempt to save into the data file of the workspace of the TaskList,
+     * which is the relative path [.\TrackerBot\data.txt] for the default workspace.</p>
      *
      * @param tasks The TaskList to read data from.
      * @throws TrackerBotException If the save data fails to generate, with specified reason.
      */
     public static void save(TaskList tasks) throws TrackerBotException {
-        Path path = Paths.get(PARENT_FOLDER, DATA_FILE);
+        Path path = getPath(tasks.getWorkspace(), DATA_FILE);
         File file = path.toFile();
         try {
             Files.createDirectories(path.getParent());
@@ -91,7 +347,7 @@ public class Storage {
         }
 
         try (FileOutputStream output = new FileOutputStream(file, false)) {
-            output.write(tasks.exportSave().getBytes());
+            output.write(formatSave(tasks).getBytes());
         } catch (IOException e) {
             throw new TrackerBotException(e.getMessage());
         } // the try with resources statement auto-closes output.
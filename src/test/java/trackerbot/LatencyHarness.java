@@ -0,0 +1,288 @@
+package trackerbot;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import com.sun.management.ThreadMXBean;
+
+import trackerbot.command.CommandResult;
+import trackerbot.command.CommandType;
+
+/**
+ * Harness for the latency of handleInput as seen by the user, under a mix of commands.
+ * <p>The harness preloads a detached TrackerBot with a data set of the given size, then runs
+ * a random mix of adds, finds, listings, toggles, deletes and mass operations against it on
+ * a single thread, as the UI thread would. Each command is timed from parsing to its rendered
+ * reply, and recorded into a histogram for its CommandType, with mass operations kept apart
+ * from single ones. The histograms report the p50, p99 and p999 latencies and the worst
+ * latency of each CommandType, along with the bytes allocated per command. The run ends with
+ * the throughput, the allocation rate and the time spent in garbage collection.</p>
+ * <p>The random seed is fixed, so every run of the same arguments sends the same commands,
+ * and the results of one release can be compared with the next.</p>
+ * <p>Run it with {@code gradlew latencyTest --args="TASKS OPERATIONS MIX"}, where every argument
+ * is optional, and MIX weighs each kind of command, as in {@value #DEFAULT_MIX}.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class LatencyHarness {
+    private static final String DEFAULT_MIX = "add=30,find=20,list=15,toggle=15,delete=10,mass=10";
+
+    private static final String[] KINDS = {"add", "find", "list", "toggle", "delete", "mass"};
+
+    private static final String[] WORDS = {"report", "groceries", "meeting", "review", "invoice",
+        "lecture", "project", "budget", "email", "workout"};
+
+    private static final String[] TAGS = {"#work", "#home", "#urgent"};
+
+    private static final String[] LISTINGS = {"list", "list done", "list #work", "agenda", "stats"};
+
+    private static final long SEED = 2103;
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final TrackerBot trackerBot = TrackerBot.instantiateDetached();
+    private final Random random = new Random(SEED);
+    private final int[] weights = new int[KINDS.length];
+    private int totalWeight = 0;
+
+    /** The number of Tasks on the list, as of the last command. */
+    private int size = 0;
+
+    private LatencyHarness(String mix) {
+        for (String entry : mix.split(",")) {
+            String[] fields = entry.split("=");
+            int kind = Arrays.asList(KINDS).indexOf(fields[0].trim());
+            if (kind == -1 || fields.length != 2) {
+                throw new IllegalArgumentException("Invalid mix: " + mix + ", expected the form " + DEFAULT_MIX);
+            }
+            weights[kind] = Integer.parseInt(fields[1].trim());
+            totalWeight += weights[kind];
+        }
+    }
+
+    public static void main(String[] args) {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        String mix = args.length > 2 ? args[2] : DEFAULT_MIX;
+
+        LatencyHarness harness = new LatencyHarness(mix);
+        harness.preload(taskCount);
+        harness.run(operations / 5, new TreeMap<>());
+
+        Map<String, Stats> stats = new TreeMap<>();
+        long gcCount = getGcCount();
+        long gcMillis = getGcMillis();
+        long allocated = getAllocatedBytes();
+        long start = System.nanoTime();
+        harness.run(operations, stats);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        allocated = getAllocatedBytes() - allocated;
+
+        System.out.printf("%d operations over %d preloaded task(s), mix %s%n", operations, taskCount, mix);
+        System.out.printf("%-16s %8s %10s %10s %10s %10s %10s%n",
+                "command", "count", "p50 us", "p99 us", "p999 us", "max us", "KB/op");
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats commandStats = entry.getValue();
+            Histogram histogram = commandStats.histogram;
+            System.out.printf("%-16s %8d %10.1f %10.1f %10.1f %10.1f %10.2f%n", entry.getKey(), histogram.getCount(),
+                    histogram.getValueAt(0.50) / 1e3, histogram.getValueAt(0.99) / 1e3,
+                    histogram.getValueAt(0.999) / 1e3, histogram.getMax() / 1e3,
+                    commandStats.allocatedBytes / 1024.0 / histogram.getCount());
+        }
+        System.out.printf("%.0f commands/s, %.1f MB/s allocated, %d GC(s) taking %d ms, %d task(s) at the end%n",
+                operations / seconds, allocated / 1e6 / seconds, getGcCount() - gcCount, getGcMillis() - gcMillis,
+                harness.size);
+    }
+
+    private void preload(int taskCount) {
+        for (int i = 0; i < taskCount; i++) {
+            execute(getAdd());
+        }
+    }
+
+    /**
+     * Runs the operations, recording the latency and allocation of each command into its Stats.
+     */
+    private void run(int operations, Map<String, Stats> stats) {
+        for (int i = 0; i < operations; i++) {
+            String input = getInput();
+            long allocatedBefore = getAllocatedBytes();
+            long sent = System.nanoTime();
+            execute(input);
+            long latency = System.nanoTime() - sent;
+            long allocated = getAllocatedBytes() - allocatedBefore;
+
+            Stats commandStats = stats.computeIfAbsent(getLabel(input), label -> new Stats());
+            commandStats.histogram.record(latency);
+            commandStats.allocatedBytes += allocated;
+        }
+    }
+
+    /**
+     * Runs the input, and renders its reply, as the window does.
+     */
+    private void execute(String input) {
+        CommandResult result = trackerBot.handleCommand(input);
+        result.getText();
+        if (result.getListSize() >= 0) {
+            size = result.getListSize();
+        }
+    }
+
+    private String getInput() {
+        int pick = random.nextInt(totalWeight);
+        int kind = 0;
+        while (pick >= weights[kind]) {
+            pick -= weights[kind];
+            kind++;
+        }
+
+        switch (KINDS[kind]) {
+        case "add":
+            return getAdd();
+        case "find":
+            return "find " + (random.nextBoolean() ? "~" : "") + WORDS[random.nextInt(WORDS.length)];
+        case "list":
+            return LISTINGS[random.nextInt(LISTINGS.length)];
+        case "toggle":
+            return (random.nextBoolean() ? "mark " : "unmark ") + getIndex();
+        case "delete":
+            return "delete " + getIndex();
+        default:
+            int first = getIndex();
+            String range = first + "-" + Math.max(first, Math.min(size, first + 19));
+            switch (random.nextInt(3)) {
+            case 0:
+                return "mass mark " + range;
+            case 1:
+                return "mass unmark " + range;
+            default:
+                return "mass delete " + getIndex() + ";" + getIndex();
+            }
+        }
+    }
+
+    private String getAdd() {
+        String description = WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(1000)
+                + " " + TAGS[random.nextInt(TAGS.length)];
+        String date = (1 + random.nextInt(28)) + "/" + (1 + random.nextInt(12)) + "/2030";
+        int type = random.nextInt(20);
+        if (type < 12) {
+            return "todo " + description;
+        } else if (type < 17) {
+            return "deadline " + description + " /by " + date + " 1800";
+        } else {
+            return "event " + description + " /from " + date + " 1000 /to " + date + " 1100";
+        }
+    }
+
+    private int getIndex() {
+        return 1 + random.nextInt(Math.max(size, 1));
+    }
+
+    /**
+     * Gets the name of the CommandType of the input, prefixed with MASS for a mass operation.
+     */
+    private static String getLabel(String input) {
+        String[] words = input.split(" ", 3);
+        CommandType type = CommandType.getCommandType(words[0]);
+        if (type == CommandType.MASS) {
+            return "MASS " + CommandType.getCommandType(words[1]);
+        }
+        return type.toString();
+    }
+
+    private static long getAllocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    private static long getGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(gc.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+
+    private static class Stats {
+        private final Histogram histogram = new Histogram();
+        private long allocatedBytes = 0;
+    }
+
+    /**
+     * Histogram of latencies in nanoseconds, with buckets that grow with the latency, in the style of HdrHistogram.
+     * <p>Latencies below {@value #SUB_BUCKETS} ns have a bucket each. Above that, each power of two is split into
+     * {@value #SUB_BUCKETS} / 2 buckets, so every recorded latency is accurate to within 1/64, or about 1.6%,
+     * in a fixed array of counts, however many latencies are recorded.</p>
+     */
+    private static class Histogram {
+        private static final int SUB_BUCKETS = 128;
+        private static final int HALF_BUCKETS = SUB_BUCKETS / 2;
+        private static final int SUB_BUCKET_BITS = 6;
+
+        private final long[] counts = new long[SUB_BUCKETS + 64 * HALF_BUCKETS];
+        private long count = 0;
+        private long max = 0;
+
+        private void record(long value) {
+            counts[getBucket(Math.max(value, 0))]++;
+            count++;
+            max = Math.max(max, value);
+        }
+
+        private long getCount() {
+            return count;
+        }
+
+        private long getMax() {
+            return max;
+        }
+
+        /**
+         * Gets the highest latency in the bucket of the percentile, so no more than the fraction of latencies
+         * recorded are above it.
+         */
+        private long getValueAt(double percentile) {
+            long rank = Math.max((long) Math.ceil(percentile * count), 1);
+            long seen = 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    return Math.min(getHighestValue(bucket), max);
+                }
+            }
+            return max;
+        }
+
+        private static int getBucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            // the top SUB_BUCKET_BITS + 1 bits of the value pick its bucket, and the lower bits are dropped
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return SUB_BUCKETS + (shift - 1) * HALF_BUCKETS + (int) (value >>> shift) - HALF_BUCKETS;
+        }
+
+        private static long getHighestValue(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = (bucket - SUB_BUCKETS) / HALF_BUCKETS + 1;
+            long subBucket = (bucket - SUB_BUCKETS) % HALF_BUCKETS + HALF_BUCKETS;
+            return ((subBucket + 1) << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package trackerbot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import trackerbot.replication.ReplicationPrimary;
+
+public class TrackerBotTest {
+    @Test
+    public void handleInput_archive_shouldSaveListStraightAway() throws Exception {
+        Path saveFile = Paths.get("TrackerBot", "data.txt");
+        Path archiveFile = Paths.get("TrackerBot", "archive.gz");
+        byte[] originalSave = Files.exists(saveFile) ? Files.readAllBytes(saveFile) : null;
+        byte[] originalArchive = Files.exists(archiveFile) ? Files.readAllBytes(archiveFile) : null;
+
+        TrackerBot trackerBot = TrackerBot.instantiateDetached();
+        try {
+            trackerBot.handleInput("todo Finished report");
+            trackerBot.handleInput("todo Open report");
+            trackerBot.handleInput("mark 1");
+            trackerBot.handleInput("archive");
+
+            String save = Files.readString(saveFile);
+            assertFalse(save.contains("Finished report"));
+            assertTrue(save.contains("Open report"));
+        } finally {
+            if (originalArchive == null) {
+                Files.deleteIfExists(archiveFile);
+            } else {
+                Files.write(archiveFile, originalArchive);
+            }
+            if (originalSave == null) {
+                Files.deleteIfExists(saveFile);
+            } else {
+                Files.write(saveFile, originalSave);
+            }
+        }
+    }
+
+    @Test
+    public void handleSave_unpromotedFollower_shouldLeaveSaveFilesUnchanged() throws Exception {
+        Path saveFile = Paths.get("TrackerBot", "data.txt");
+        Path archiveFile = Paths.get("TrackerBot", "archive.gz");
+        byte[] originalSave = Files.exists(saveFile) ? Files.readAllBytes(saveFile) : null;
+        boolean hasArchive = Files.exists(archiveFile);
+        long archiveSize = hasArchive ? Files.size(archiveFile) : 0;
+
+        ExecutorService primaryOwner = Executors.newSingleThreadExecutor();
+        ExecutorService followerOwner = Executors.newSingleThreadExecutor();
+        TrackerBot primary = TrackerBot.instantiateDetached();
+        ReplicationPrimary replication = new ReplicationPrimary(primary, primaryOwner);
+        try {
+            byte[] primarySave = CompletableFuture.supplyAsync(() -> {
+                primary.handleInput("deadline Old report /by 1/10/2020");
+                primary.handleInput("mark 1");
+                return primary.exportSave().getBytes(StandardCharsets.UTF_8);
+            }, primaryOwner).get();
+            Files.createDirectories(saveFile.getParent());
+            Files.write(saveFile, primarySave);
+            replication.start(0);
+
+            TrackerBot follower = TrackerBot.instantiateFollower(replication.getPort(), followerOwner, message -> {});
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            boolean hasCaughtUp = false;
+            while (!hasCaughtUp && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+                hasCaughtUp = CompletableFuture.supplyAsync(follower::getTasksAsJson, followerOwner).get()
+                        .contains("Old report");
+            }
+            assertTrue(hasCaughtUp);
+            CompletableFuture.runAsync(() -> {
+                try {
+                    follower.handleSave();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, followerOwner).get();
+
+            assertArrayEquals(primarySave, Files.readAllBytes(saveFile));
+            assertEquals(hasArchive, Files.exists(archiveFile));
+            assertEquals(archiveSize, hasArchive ? Files.size(archiveFile) : 0);
+        } finally {
+            replication.stop();
+            primaryOwner.shutdown();
+            followerOwner.shutdown();
+            if (!hasArchive) {
+                Files.deleteIfExists(archiveFile);
+            }
+            if (originalSave == null) {
+                Files.deleteIfExists(saveFile);
+            } else {
+                Files.write(saveFile, originalSave);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package trackerbot.api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import trackerbot.TrackerBot;
+
+/**
+ * Load-test harness for the local API, reporting requests per second and latency percentiles.
+ * <p>The harness serves a detached TrackerBot on a free port, with a single owner thread in
+ * place of the UI thread, and drives it with concurrent keep-alive clients. Each client sends
+ * a mix of adds, deletes, finds and lists, first as one command per request, and then in
+ * batches, followed by reads of the whole Task List.</p>
+ * <p>Run it with {@code gradlew apiLoadTest --args="REQUESTS CLIENTS BATCH_SIZE"}, where every
+ * argument is optional.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class ApiLoadHarness {
+    /** Commands sent in turn, where every add is paired with a delete so the list stays small. */
+    private static final String[] COMMAND_MIX = {"todo Load test task", "find ~load", "list done", "delete 1"};
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        ExecutorService owner = Executors.newSingleThreadExecutor();
+        ApiServer server = new ApiServer(TrackerBot.instantiateDetached(), owner);
+        server.start(0);
+        URI commands = URI.create("http://127.0.0.1:" + server.getPort() + "/commands");
+        URI tasks = URI.create("http://127.0.0.1:" + server.getPort() + "/tasks");
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        try {
+            run("warmup", client, commands, requests / 4, clients, 1);
+            run("single commands", client, commands, requests, clients, 1);
+            run("batches of " + batchSize, client, commands, Math.max(1, requests / batchSize), clients, batchSize);
+            run("task reads", client, tasks, requests / 10, clients, 0);
+        } finally {
+            server.stop();
+            owner.shutdown();
+        }
+    }
+
+    /**
+     * Sends the requests from concurrent clients, and prints the throughput and latencies.
+     *
+     * @param label The name of the run.
+     * @param client The HTTP client, which keeps its connections alive between requests.
+     * @param uri The endpoint to send the requests to.
+     * @param requests The number of requests to send.
+     * @param clients The number of concurrent clients.
+     * @param batchSize The number of commands per request, or 0 to send GET requests.
+     */
+    private static void run(String label, HttpClient client, URI uri, int requests, int clients, int batchSize)
+            throws Exception {
+        // single commands are sent in turn from the mix, so every request sends a different command
+        HttpRequest[] mix = new HttpRequest[batchSize == 1 ? COMMAND_MIX.length : 1];
+        for (int i = 0; i < mix.length; i++) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+            mix[i] = batchSize == 0
+                    ? builder.GET().build()
+                    : builder.POST(HttpRequest.BodyPublishers.ofString(getBatch(i, batchSize))).build();
+        }
+        long[] latencies = new long[requests];
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        Future<?>[] workers = new Future<?>[clients];
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int first = c;
+            workers[c] = pool.submit(() -> {
+                for (int i = first; i < requests; i += clients) {
+                    long sent = System.nanoTime();
+                    HttpRequest request = mix[i % mix.length];
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    latencies[i] = System.nanoTime() - sent;
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Request failed: " + response.body());
+                    }
+                }
+                return null;
+            });
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%-20s %8d requests %10.0f requests/s %10.0f commands/s  p50 %7.2f ms  p99 %7.2f ms%n",
+                label, requests, requests / seconds, requests * (double) Math.max(batchSize, 1) / seconds,
+                getPercentile(latencies, 0.50), getPercentile(latencies, 0.99));
+    }
+
+    private static String getBatch(int first, int batchSize) {
+        StringBuilder batch = new StringBuilder();
+        for (int i = first; i < first + batchSize; i++) {
+            batch.append(COMMAND_MIX[i % COMMAND_MIX.length]).append('\n');
+        }
+        return batch.toString();
+    }
+
+    private static double getPercentile(long[] sortedLatencies, double percentile) {
+        int rank = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(rank, 0)] / 1e6;
+    }
+}
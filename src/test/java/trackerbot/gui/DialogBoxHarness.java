@@ -0,0 +1,173 @@
+package trackerbot.gui;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.shape.Circle;
+
+/**
+ * Harness for the latency of appending a message to the dialog, reporting percentiles over 10000 messages.
+ * <p>The harness appends alternating user and bot dialog boxes to a dialog container on the FX thread,
+ * timing the construction and append of each box, and then the CSS and layout pass over the container,
+ * as a pulse would run after each message. For comparison, it then does the same for dialog boxes
+ * loaded from FXML, each with a clip of its own, as dialog boxes were built before.</p>
+ * <p>Run it with {@code gradlew dialogBenchmark --args="MESSAGES"}, where the argument is optional.
+ * It needs a display, so run it under xvfb-run on a machine without one.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class DialogBoxHarness {
+    /** The dialog box FXML that was loaded for every message, before dialog boxes were built in code. */
+    private static final String DIALOG_BOX_FXML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<?import javafx.geometry.Insets?>\n"
+            + "<?import javafx.scene.control.Label?>\n"
+            + "<?import javafx.scene.image.ImageView?>\n"
+            + "<?import javafx.scene.layout.HBox?>\n"
+            + "<fx:root alignment=\"CENTER_RIGHT\" minHeight=\"-Infinity\" maxHeight=\"1.7976931348623157E308\""
+            + " maxWidth=\"1.7976931348623157E308\" prefWidth=\"400.0\" spacing=\"5.0\""
+            + " type=\"javafx.scene.layout.HBox\" xmlns=\"http://javafx.com/javafx/17\""
+            + " xmlns:fx=\"http://javafx.com/fxml/1\">\n"
+            + "    <children>\n"
+            + "        <Label fx:id=\"dialog\" text=\"Label\" wrapText=\"true\" />\n"
+            + "        <ImageView fx:id=\"displayPicture\" fitHeight=\"99.0\" fitWidth=\"99.0\" pickOnBounds=\"true\""
+            + " preserveRatio=\"true\" />\n"
+            + "    </children>\n"
+            + "    <padding>\n"
+            + "        <Insets bottom=\"15.0\" left=\"5.0\" right=\"5.0\" top=\"15.0\" />\n"
+            + "    </padding>\n"
+            + "</fx:root>\n";
+
+    /** Number of messages appended before timing, so the JIT has compiled the append path. */
+    private static final int WARMUP_MESSAGES = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.startup(() -> {
+            try {
+                run(messages);
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+        Platform.exit();
+    }
+
+    private static void run(int messages) {
+        Image userImage = new Image(DialogBoxHarness.class.getResourceAsStream("/images/User.png"));
+        Image botImage = new Image(DialogBoxHarness.class.getResourceAsStream("/images/Bot.png"));
+
+        DialogFactory built = (text, img, isUser) -> isUser
+                ? DialogBox.getUserDialog(text, img)
+                : DialogBox.getBotDialog(text, img);
+        DialogFactory loaded = DialogBoxHarness::loadDialog;
+
+        append(WARMUP_MESSAGES, built, userImage, botImage);
+        report("built in code", append(messages, built, userImage, botImage));
+        append(WARMUP_MESSAGES, loaded, userImage, botImage);
+        report("loaded from FXML", append(messages, loaded, userImage, botImage));
+    }
+
+    /**
+     * Appends the messages to a new dialog container, timing each append and each layout pass.
+     *
+     * @return The nanoseconds taken by each append, followed by those taken by each layout pass.
+     */
+    private static long[][] append(int messages, DialogFactory factory, Image userImage, Image botImage) {
+        VBox dialogContainer = new VBox();
+        new Scene(dialogContainer);
+        long[] appendNanos = new long[messages];
+        long[] layoutNanos = new long[messages];
+        for (int i = 0; i < messages; i++) {
+            boolean isUser = i % 2 == 0;
+            String text = isUser ? "mark " + i : "Nice! I've marked this task as done:\n  [T][X] Message " + i;
+
+            long start = System.nanoTime();
+            dialogContainer.getChildren().add(factory.create(text, isUser ? userImage : botImage, isUser));
+            appendNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            dialogContainer.applyCss();
+            dialogContainer.layout();
+            layoutNanos[i] = System.nanoTime() - start;
+        }
+        return new long[][] {appendNanos, layoutNanos};
+    }
+
+    private static void report(String name, long[][] nanos) {
+        System.out.println("dialog boxes " + name + ", over " + nanos[0].length + " messages:");
+        System.out.println("  append: " + formatPercentiles(nanos[0]));
+        System.out.println("  layout: " + formatPercentiles(nanos[1]));
+    }
+
+    private static String formatPercentiles(long[] nanos) {
+        long total = 0;
+        for (long nano : nanos) {
+            total += nano;
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return String.format("p50 %.1f us, p99 %.1f us, p999 %.1f us, max %.1f us, total %.0f ms",
+                sorted[sorted.length / 2] / 1e3, sorted[(int) (sorted.length * 0.99)] / 1e3,
+                sorted[(int) (sorted.length * 0.999)] / 1e3, sorted[sorted.length - 1] / 1e3, total / 1e6);
+    }
+
+    /**
+     * Builds a dialog box as it was built before, by loading its FXML and clipping its avatar.
+     */
+    private static Node loadDialog(String text, Image img, boolean isUser) {
+        LoadedDialog controller = new LoadedDialog();
+        HBox root = new HBox();
+        FXMLLoader fxmlLoader = new FXMLLoader();
+        fxmlLoader.setController(controller);
+        fxmlLoader.setRoot(root);
+        try {
+            fxmlLoader.load(new ByteArrayInputStream(DIALOG_BOX_FXML.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        controller.dialog.setText(text);
+        controller.displayPicture.setImage(img);
+        controller.displayPicture.setClip(new Circle(
+                controller.displayPicture.getLayoutX() + controller.displayPicture.getFitWidth() / 2,
+                controller.displayPicture.getLayoutY() + controller.displayPicture.getFitHeight() / 2,
+                controller.displayPicture.getFitWidth() / 2));
+        if (!isUser) {
+            root.getChildren().setAll(controller.displayPicture, controller.dialog);
+        }
+        return root;
+    }
+
+    /**
+     * Builds a dialog box for a message.
+     */
+    private interface DialogFactory {
+        Node create(String text, Image img, boolean isUser);
+    }
+
+    /**
+     * Controller of a dialog box loaded from FXML.
+     */
+    private static class LoadedDialog {
+        @FXML
+        private Label dialog;
+
+        @FXML
+        private ImageView displayPicture;
+    }
+}
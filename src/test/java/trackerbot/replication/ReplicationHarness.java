@@ -0,0 +1,219 @@
+package trackerbot.replication;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+import trackerbot.TrackerBot;
+import trackerbot.task.TaskList;
+import trackerbot.utils.Storage;
+
+/**
+ * Harness for replication, reporting the catch-up time, throughput and lag of a follower.
+ * <p>The harness preloads a detached TrackerBot, serves it as a primary, and starts a follower
+ * in a separate JVM with the same classpath. Once the follower has caught up from the snapshot,
+ * the primary runs a mix of adds, marks, unmarks and deletes as fast as it can, and the harness
+ * waits for the follower to apply all of them. The follower then reports the percentiles of the
+ * time between each change being sent and applied, and the checksum of its Task List, which
+ * must match the checksum of the Task List of the primary. Finally, the primary runs changes
+ * at a steady rate, to measure the lag of a follower that keeps up.</p>
+ * <p>Run it with {@code gradlew replicationTest --args="PRELOAD CHANGES"}, where every argument
+ * is optional.</p>
+ *
+ * @author WZWren
+ * @version A-CodeQuality
+ */
+public class ReplicationHarness {
+    private static final String FOLLOW_MODE = "follow";
+
+    /** Rate of the changes made after the burst, to measure the lag of a follower that keeps up. */
+    private static final int PACED_RATE = 500;
+
+    private static final int PACED_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(FOLLOW_MODE)) {
+            follow(Integer.parseInt(args[1]));
+            return;
+        }
+        int preload = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int changes = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+        ExecutorService owner = Executors.newSingleThreadExecutor();
+        TrackerBot trackerBot = TrackerBot.instantiateDetached();
+        onOwner(owner, () -> {
+            for (int i = 0; i < preload; i++) {
+                trackerBot.handleInput("todo Preloaded task " + i);
+            }
+            return null;
+        });
+        ReplicationPrimary primary = new ReplicationPrimary(trackerBot, owner);
+        primary.start(0);
+
+        Process follower = new ProcessBuilder("java", "-cp", System.getProperty("java.class.path"),
+                ReplicationHarness.class.getName(), FOLLOW_MODE, String.valueOf(primary.getPort()))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        PrintWriter toFollower = new PrintWriter(follower.getOutputStream(), true, StandardCharsets.UTF_8);
+        BufferedReader fromFollower = new BufferedReader(
+                new InputStreamReader(follower.getInputStream(), StandardCharsets.UTF_8));
+
+        try {
+            long start = System.nanoTime();
+            int followerSize;
+            do {
+                toFollower.println("size");
+                followerSize = Integer.parseInt(fromFollower.readLine());
+            } while (followerSize < preload);
+            System.out.printf("catch-up of %d tasks: %.0f ms, including the start of the follower JVM%n",
+                    preload, (System.nanoTime() - start) / 1e6);
+
+            Random random = new Random(42);
+            int[] size = {preload};
+            start = System.nanoTime();
+            long lastSequence = onOwner(owner, () -> {
+                for (int i = 0; i < changes; i += 2) {
+                    size[0] = runChange(trackerBot, random, size[0], i);
+                }
+                return trackerBot.getChangeFeed().getLastSequence();
+            });
+            double primaryMillis = (System.nanoTime() - start) / 1e6;
+            toFollower.println("wait " + lastSequence);
+            String lags = fromFollower.readLine();
+            double followerMillis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("burst of %d changes: primary %.0f ms, follower caught up after %.0f ms"
+                    + " (%.0f changes/s)%n",
+                    lastSequence, primaryMillis, followerMillis, lastSequence / followerMillis * 1000);
+            System.out.println("  lag during the burst: " + lags);
+
+            // changes at a steady rate, as a user or script would make them, show the lag of a follower keeping up
+            toFollower.println("reset");
+            long interval = 1_000_000_000L / PACED_RATE;
+            long next = System.nanoTime();
+            for (int i = 0; i < PACED_RATE * PACED_SECONDS; i += 2) {
+                int index = i;
+                onOwner(owner, () -> size[0] = runChange(trackerBot, random, size[0], index));
+                next += 2 * interval;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+            lastSequence = onOwner(owner, () -> trackerBot.getChangeFeed().getLastSequence());
+            toFollower.println("wait " + lastSequence);
+            System.out.println("  lag at " + PACED_RATE + " changes/s: " + fromFollower.readLine());
+
+            toFollower.println("checksum");
+            String followerChecksum = fromFollower.readLine();
+            String primaryChecksum = onOwner(owner, () -> checksum(trackerBot.exportSave()));
+            System.out.println("checksum primary " + primaryChecksum + ", follower " + followerChecksum
+                    + (primaryChecksum.equals(followerChecksum) ? " (match)" : " (MISMATCH)"));
+        } finally {
+            toFollower.println("exit");
+            follower.waitFor();
+            primary.stop();
+            owner.shutdown();
+        }
+    }
+
+    /**
+     * Runs an add, followed by a mark, an unmark or a delete of a random task.
+     *
+     * @return The size of the Task List afterwards.
+     */
+    private static int runChange(TrackerBot trackerBot, Random random, int size, int i) {
+        trackerBot.handleInput("todo Replicated task " + i);
+        size++;
+        int index = 1 + random.nextInt(size);
+        // deletes shift the rest of the list, so they are kept to a realistic share of the changes
+        int kind = random.nextInt(8);
+        if (kind == 0) {
+            trackerBot.handleInput("delete " + index);
+            size--;
+        } else {
+            trackerBot.handleInput((kind % 2 == 0 ? "mark " : "unmark ") + index);
+        }
+        return size;
+    }
+
+    /**
+     * Runs a follower, answering the commands of the harness on standard input.
+     *
+     * @param port The port of the primary.
+     */
+    private static void follow(int port) throws Exception {
+        ExecutorService owner = Executors.newSingleThreadExecutor();
+        TaskList tasks = new TaskList();
+        long[][] lags = {new long[1 << 16]};
+        int[] lagCount = {0};
+        ReplicationFollower follower = new ReplicationFollower(tasks, owner, lagMicros -> {
+            if (lagCount[0] == lags[0].length) {
+                lags[0] = Arrays.copyOf(lags[0], lagCount[0] * 2);
+            }
+            lags[0][lagCount[0]++] = lagMicros;
+        });
+        follower.start(port);
+
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        PrintWriter output = new PrintWriter(System.out, true, StandardCharsets.UTF_8);
+        String command;
+        while ((command = input.readLine()) != null && !command.equals("exit")) {
+            if (command.equals("size")) {
+                Thread.sleep(1);
+                output.println(onOwner(owner, tasks::getSize));
+            } else if (command.startsWith("wait ")) {
+                long sequence = Long.parseLong(command.substring("wait ".length()));
+                while (follower.getAppliedSequence() < sequence) {
+                    Thread.sleep(1);
+                }
+                output.println(onOwner(owner, () -> formatPercentiles(Arrays.copyOf(lags[0], lagCount[0]))));
+            } else if (command.equals("reset")) {
+                onOwner(owner, () -> lagCount[0] = 0);
+            } else if (command.equals("checksum")) {
+                output.println(onOwner(owner, () -> checksum(Storage.formatSave(tasks))));
+            }
+        }
+        follower.promote();
+        owner.shutdown();
+    }
+
+    private static String formatPercentiles(long[] lags) {
+        Arrays.sort(lags);
+        return String.format("p50 %d us, p99 %d us, p999 %d us, max %d us over %d changes",
+                lags[lags.length / 2], lags[(int) (lags.length * 0.99)], lags[(int) (lags.length * 0.999)],
+                lags[lags.length - 1], lags.length);
+    }
+
+    private static String checksum(String save) {
+        CRC32 crc = new CRC32();
+        crc.update(save.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue()) + "/" + save.length();
+    }
+
+    private static <T> T onOwner(ExecutorService owner, CheckedSupplier<T> action) throws IOException {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return action.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, owner).get();
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Supplier that may throw, for running actions on the owner thread.
+     */
+    private interface CheckedSupplier<T> {
+        T get() throws Exception;
+    }
+}
@@ -0,0 +1,552 @@
+package trackerbot.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import trackerbot.command.CommandResult;
+import trackerbot.command.CommandType;
+import trackerbot.exception.TrackerBotException;
+
+public class TaskListTest {
+    @Test
+    public void findFuzzy_typoInQuery_shouldRankClosestFirst() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "Buy groceries");
+        tasks.addTask(CommandType.TODO, "Write Report for CS2103");
+        tasks.addTask(CommandType.TODO, "Reprint the report");
+
+        assertEquals("These tasks are the closest matches:\n"
+                + "2. [T][ ] Write Report for CS2103\n"
+                + "3. [T][ ] Reprint the report",
+                tasks.findFuzzy("write reprot"));
+    }
+
+    @Test
+    public void findFuzzy_deletedTask_shouldNotMatch() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "Buy groceries");
+        tasks.addTask(CommandType.TODO, "Buy milk");
+        tasks.deleteTask(1);
+
+        assertEquals("These tasks are the closest matches:\n1. [T][ ] Buy milk",
+                tasks.findFuzzy("BUY"));
+        assertEquals("No results match your search.", tasks.findFuzzy("groceries"));
+    }
+
+    @Test
+    public void findAll_structuredQuery_shouldApplyEveryFilter() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.DEADLINE, "Submit report /by 1/10/2020");
+        tasks.addTask(CommandType.DEADLINE, "Submit report /by 1/12/2020");
+        tasks.addTask(CommandType.TODO, "Proofread report");
+        tasks.addTask(CommandType.DEADLINE, "Submit reports /by 2/10/2020");
+        tasks.addTask(CommandType.DEADLINE, "Submit report /by 3/10/2020");
+        tasks.markTask(5);
+
+        assertEquals("1. [D][ ] Submit report (by: 01 Oct 2020, Thu @ 12:00AM)\n"
+                + "4. [D][ ] Submit reports (by: 02 Oct 2020, Fri @ 12:00AM)",
+                tasks.findAll(TaskQuery.compile("type:D done:no by<20/10/2020 report")));
+        assertEquals("No results match your search.",
+                tasks.findAll(TaskQuery.compile("type:D done:no by<20/10/2020 REPORT")));
+    }
+
+    @Test
+    public void findAll_keywordWithFilter_shouldMatchSubstringsAsFind() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.DEADLINE, "Submit report /by 1/10/2020");
+        tasks.addTask(CommandType.TODO, "Reprint the report");
+        tasks.addTask(CommandType.DEADLINE, "Pay rent /by 1/10/2020");
+
+        String report = "1. [D][ ] Submit report (by: 01 Oct 2020, Thu @ 12:00AM)";
+        assertEquals(report + "\n2. [T][ ] Reprint the report", tasks.findAll("rep"));
+        assertEquals(report, tasks.findAll(TaskQuery.compile("type:D rep")));
+        assertEquals("No results match your search.", tasks.findAll(TaskQuery.compile("type:D pay")));
+        assertEquals("2. [T][ ] Reprint the report", tasks.findAll(TaskQuery.compile("type:T Rep the")));
+    }
+
+    @Test
+    public void compile_invalidFilter_shouldThrow() {
+        try {
+            TaskQuery.compile("type:X report");
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals("Invalid filter: type:[T/D/E/R]", e.getMessage());
+        }
+    }
+
+    @Test
+    public void listByStatus_afterDeletesAcrossWords_shouldTrackPositions() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= 130; i++) {
+            tasks.addTask(CommandType.TODO, "Task " + i);
+            if (i % 3 == 0) {
+                tasks.markTask(i);
+            }
+        }
+        tasks.deleteTask(1);
+        BitSet indexes = new BitSet();
+        List.of(2, 64, 65, 128).forEach(indexes::set);
+        tasks.deleteTasks(indexes, new StringBuilder());
+
+        StringBuilder expected = new StringBuilder("I am tracking these completed tasks:");
+        int position = 0;
+        for (int i = 2; i <= 130; i++) {
+            if (i == 3 || i == 65 || i == 66 || i == 129) {
+                continue;
+            }
+            position++;
+            if (i % 3 == 0) {
+                expected.append("\n").append(position).append(". [T][X] Task ").append(i);
+            }
+        }
+        assertEquals(expected.toString(), tasks.listByStatus(true));
+        assertEquals("I am tracking 125 task(s):\n  40 completed\n  85 incomplete", tasks.getStats());
+    }
+
+    @Test
+    public void deleteTasks_withMissingIndex_shouldReturnDeletedTasksAndErrors() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "First");
+        tasks.addTask(CommandType.TODO, "Second");
+        tasks.addTask(CommandType.TODO, "Third");
+        BitSet indexes = new BitSet();
+        List.of(1, 3, 7).forEach(indexes::set);
+        CommandResult result = tasks.deleteTasks(indexes, new StringBuilder());
+
+        assertEquals(2, result.getTasks().size());
+        assertEquals("First", result.getTasks().get(0).getDescription());
+        assertEquals("Third", result.getTasks().get(1).getDescription());
+        assertEquals(1, result.getListSize());
+        assertTrue(result.hasErrors());
+        assertEquals("\n7 - The specified task does not exist.", result.getErrorLog().toString());
+        assertEquals("I have removed these tasks off of my list:\n\n1. [T][ ] First\n2. [T][ ] Third\n"
+                + "1 task(s) remain on my list.\n\n", result.getText());
+    }
+
+    @Test
+    public void getIndexOfId_afterDelete_shouldFollowTask() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "First");
+        tasks.addTask(CommandType.TODO, "Second");
+        tasks.addTask(CommandType.TODO, "Third");
+        tasks.deleteTask(1);
+
+        assertEquals(2, tasks.getIndexOfId(3));
+        assertEquals("T|0|Second|2\nT|0|Third|3\n", tasks.exportSave());
+        try {
+            tasks.getIndexOfId(1);
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals("No task has the ID #1.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void importSave_legacySaveString_shouldAssignNextId() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.importSave(Task.ofSaveString("T", "1", "Saved", "7"));
+        tasks.importSave(Task.ofSaveString("T", "0", "Legacy"));
+
+        assertEquals(2, tasks.getIndexOfId(8));
+        assertEquals(9, tasks.getNextId());
+    }
+
+    @Test
+    public void importSave_lazilyParsedTasks_shouldBehaveAsParsed() throws TrackerBotException {
+        String saveFile = "#|9\nT|1|Saved todo|4\r\nD|0|Saved deadline|976579200\n";
+        SaveFileIndex index = SaveFileIndex.scan(saveFile.getBytes());
+        TaskList tasks = new TaskList();
+        tasks.deferSearchIndexes();
+        tasks.setNextId(index.getNextId());
+        for (int i = 0; i < index.getSize(); i++) {
+            tasks.importSave(index.getTask(i));
+        }
+
+        assertEquals("T|1|Saved todo|4\nD|0|Saved deadline|976579200|9\n", tasks.exportSave());
+        assertEquals("2. [D][ ] Saved deadline (by: 12 Dec 2000, Tue @ 12:00AM)",
+                tasks.findAll(TaskQuery.compile("type:D done:no")));
+        tasks.markTask(2);
+        assertEquals("I am tracking 2 task(s):\n  2 completed\n  0 incomplete", tasks.getStats());
+    }
+
+    @Test
+    public void listByTags_severalTags_shouldListIntersectionInListOrder() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "Plan #work #urgent");
+        tasks.addTask(CommandType.TODO, "Shop #home");
+        tasks.addTask(CommandType.DEADLINE, "Report #work /by 12/12/2000 1800");
+        tasks.addTask(CommandType.TODO, "Fix bug #12 #urgent #WORK");
+        tasks.deleteTask(2);
+
+        assertEquals("Here are the tasks tagged #urgent #work:\n"
+                + "1. [T][ ] Plan #urgent #work\n"
+                + "3. [T][ ] Fix bug #12 #urgent #work", tasks.listByTags(List.of("urgent", "work")));
+        assertEquals("No tasks are tagged #home.", tasks.listByTags(List.of("home")));
+
+        BitSet selection = new BitSet();
+        tasks.selectByTag("work", selection);
+        assertEquals("{1, 2, 3}", selection.toString());
+    }
+
+    @Test
+    public void importSave_taggedSaveLines_shouldKeepTagsLazily() throws TrackerBotException {
+        String saveFile = "#|3\nT|0|Plain|1\nT|0|Tagged|2|#home #work\n";
+        SaveFileIndex index = SaveFileIndex.scan(saveFile.getBytes());
+        TaskList tasks = new TaskList();
+        tasks.deferSearchIndexes();
+        tasks.setNextId(index.getNextId());
+        for (int i = 0; i < index.getSize(); i++) {
+            tasks.importSave(index.getTask(i));
+        }
+
+        assertEquals(saveFile.substring("#|3\n".length()), tasks.exportSave());
+        assertEquals("Here are the tasks tagged #work:\n2. [T][ ] Tagged #home #work",
+                tasks.listByTags(List.of("work")));
+        tasks.markTask(2);
+        assertEquals("T|1|Tagged|2|#home #work",
+                Task.ofSaveString("T", "1", "Tagged", "2", "#home #work").toSaveString());
+    }
+
+    @Test
+    public void removeArchived_datedCutoff_shouldOnlyRemoveOldCompletedTasks() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.DEADLINE, "Old report /by 1/10/2020");
+        tasks.addTask(CommandType.TODO, "Done todo");
+        tasks.addTask(CommandType.DEADLINE, "Pending report /by 1/10/2020");
+        tasks.addTask(CommandType.DEADLINE, "New report /by 1/10/2099");
+        tasks.markTask(1);
+        tasks.markTask(2);
+        tasks.markTask(4);
+
+        List<Task> archivable = tasks.getArchivable(LocalDateTime.of(2021, 1, 1, 0, 0));
+        assertEquals(1, archivable.size());
+        assertEquals("I have moved 1 completed task(s) into the archive.\n3 task(s) remain on my list.",
+                tasks.removeArchived(archivable));
+        assertEquals(1, tasks.getIndexOfId(2));
+        assertEquals("These archived tasks match your search:\n"
+                + "#1 [D][X] Old report (by: 01 Oct 2020, Thu @ 12:00AM)",
+                new TaskArchive(archivable).findAll(TaskQuery.compile("type:D report")));
+        assertEquals(2, tasks.getArchivable(null).size());
+    }
+
+    @Test
+    public void setReminderScheduler_listChanges_shouldUpdatePendingReminders() throws TrackerBotException {
+        String nextYear = "1/1/" + (LocalDateTime.now().getYear() + 1);
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.DEADLINE, "Pending report /by " + nextYear);
+        tasks.addTask(CommandType.DEADLINE, "Overdue report /by 1/10/2020");
+        ReminderScheduler reminders = new ReminderScheduler(Duration.ofHours(1), task -> fail());
+        tasks.setReminderScheduler(reminders);
+        assertEquals(1, reminders.getPendingCount());
+
+        tasks.addTask(CommandType.EVENT, "Meeting /from " + nextYear + " /to 2/1/" + nextYear.substring(4));
+        tasks.addTask(CommandType.TODO, "Undated");
+        assertEquals(2, reminders.getPendingCount());
+        tasks.markTask(1);
+        assertEquals(1, reminders.getPendingCount());
+        tasks.unmarkTask(1);
+        assertEquals(2, reminders.getPendingCount());
+        tasks.deleteTask(3);
+        assertEquals(1, reminders.getPendingCount());
+    }
+
+    @Test
+    public void start_reminderWithinLeadTime_shouldFireOnce() throws Exception {
+        long soon = LocalDateTime.now().plusMinutes(10).toEpochSecond(ZoneOffset.UTC);
+        Task task = Task.ofSaveString("D", "0", "Due soon", String.valueOf(soon), "1");
+        BlockingQueue<Task> fired = new LinkedBlockingQueue<>();
+        ReminderScheduler reminders = new ReminderScheduler(Duration.ofHours(1), fired::add);
+        reminders.start();
+        reminders.schedule(task);
+
+        assertEquals(task, fired.poll(5, TimeUnit.SECONDS));
+        assertEquals(0, reminders.getPendingCount());
+    }
+
+    @Test
+    public void listAgenda_afterMarkUnmarkAndDelete_shouldListEarliestIncompleteTasks() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.DEADLINE, "Report /by 10/1/2024 1200");
+        tasks.addTask(CommandType.TODO, "Shop");
+        tasks.addTask(CommandType.EVENT, "Trip /from 5/1/2024 0900 /to 7/1/2024 1800");
+        tasks.addTask(CommandType.RECUR, "Stand-up /every 3 /from 1/1/2024 1000");
+        tasks.addTask(CommandType.DEADLINE, "Essay /by 3/1/2024 1200");
+        tasks.addTask(CommandType.DEADLINE, "Review /by 10/1/2024 1200");
+
+        String report = "[D][ ] Report (by: 10 Jan 2024, Wed @ 12:00PM)";
+        String trip = "[E][ ] Trip (from: 05 Jan 2024, Fri @ 09:00AM | to: 07 Jan 2024, Sun @ 06:00PM)";
+        assertEquals("These are next on your agenda:\n"
+                + "03 Jan 2024, Wed @ 12:00PM - 5. [D][ ] Essay (by: 03 Jan 2024, Wed @ 12:00PM)\n"
+                + "05 Jan 2024, Fri @ 09:00AM - 3. " + trip + "\n"
+                + "10 Jan 2024, Wed @ 12:00PM - 1. " + report, tasks.listAgenda(3));
+
+        tasks.markTask(5);
+        tasks.deleteTask(3);
+        assertEquals("These are next on your agenda:\n"
+                + "10 Jan 2024, Wed @ 12:00PM - 1. " + report + "\n"
+                + "10 Jan 2024, Wed @ 12:00PM - 5. [D][ ] Review (by: 10 Jan 2024, Wed @ 12:00PM)",
+                tasks.listAgenda(3));
+
+        tasks.unmarkTask(4);
+        assertEquals("These are next on your agenda:\n"
+                + "03 Jan 2024, Wed @ 12:00PM - 4. [D][ ] Essay (by: 03 Jan 2024, Wed @ 12:00PM)",
+                tasks.listAgenda(1));
+        tasks.clear();
+        assertEquals("You have no incomplete deadlines or events.", tasks.listAgenda(1));
+    }
+
+    @Test
+    public void completeWord_afterAddAndDelete_shouldCompleteMostUsedWord() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "Write report");
+        tasks.addTask(CommandType.TODO, "Review Reports");
+        tasks.addTask(CommandType.DEADLINE, "Reports due /by 10/1/2024 1200");
+
+        assertEquals("reports", tasks.completeWord("Rep"));
+        assertEquals("review", tasks.completeWord("rev"));
+        assertNull(tasks.completeWord("x"));
+
+        tasks.deleteTask(3);
+        tasks.deleteTask(2);
+        assertEquals("report", tasks.completeWord("rep"));
+        assertNull(tasks.completeWord("rev"));
+    }
+
+    @Test
+    public void getIncrementalSearch_longerQueries_shouldNarrowToFindResults() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "Buy milk");
+        tasks.addTask(CommandType.TODO, "Buy bread");
+        tasks.addTask(CommandType.TODO, "Bury the hatchet");
+        tasks.addTask(CommandType.TODO, "Sell milk");
+
+        IncrementalSearch search = tasks.getIncrementalSearch();
+        assertSame(search, tasks.getIncrementalSearch());
+        assertEquals("[0, 1, 2]", Arrays.toString(search.search("Bu", () -> false)));
+        assertEquals("[0, 1]", Arrays.toString(search.search("Buy", () -> false)));
+        assertNull(search.search("Buy m", () -> true));
+        assertEquals("[0]", Arrays.toString(search.search("Buy m", () -> false)));
+        assertEquals("[0, 3]", Arrays.toString(search.search("milk", () -> false)));
+        assertEquals(List.of("1. [T][ ] Buy milk", "4. [T][ ] Sell milk"),
+                search.render(search.search("milk", () -> false), 10));
+
+        tasks.markTask(1);
+        assertSame(search, tasks.getIncrementalSearch());
+        assertEquals(List.of("1. [T][X] Buy milk"), search.render(search.search("Buy m", () -> false), 10));
+
+        tasks.deleteTask(1);
+        assertNotSame(search, tasks.getIncrementalSearch());
+        assertEquals(List.of("3. [T][ ] Sell milk"),
+                tasks.getIncrementalSearch().render(tasks.getIncrementalSearch().search("milk", () -> false), 10));
+    }
+
+    @Test
+    public void listUpcoming_recurringAndDatedTasks_shouldMergeInDateOrder() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.RECUR, "Water plants /every week /from 1/1/2020 0900");
+        tasks.addTask(CommandType.DEADLINE, "Submit report /by 10/1/2024 1200");
+        tasks.addTask(CommandType.RECUR, "Stand-up /every 3 /from 7/1/2024 1000");
+        tasks.addTask(CommandType.DEADLINE, "Finished report /by 9/1/2024 1200");
+        tasks.markTask(4);
+
+        String plants = "[R][ ] Water plants (every: 7 day(s), from: 01 Jan 2020, Wed @ 09:00AM)";
+        String standUp = "[R][ ] Stand-up (every: 3 day(s), from: 07 Jan 2024, Sun @ 10:00AM)";
+        assertEquals("These tasks are coming up:\n"
+                + "07 Jan 2024, Sun @ 10:00AM - 3. " + standUp + "\n"
+                + "10 Jan 2024, Wed @ 09:00AM - 1. " + plants + "\n"
+                + "10 Jan 2024, Wed @ 10:00AM - 3. " + standUp + "\n"
+                + "10 Jan 2024, Wed @ 12:00PM - 2. [D][ ] Submit report (by: 10 Jan 2024, Wed @ 12:00PM)",
+                tasks.listUpcoming(LocalDateTime.of(2024, 1, 5, 0, 0), LocalDateTime.of(2024, 1, 11, 0, 0)));
+        assertEquals("1. " + plants, tasks.findAll(TaskQuery.compile("by>9/1/2024 by<11/1/2024 plants")));
+    }
+
+    @Test
+    public void listUpcoming_sharedTimes_shouldListInIdOrder() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        StringBuilder expected = new StringBuilder("These tasks are coming up:");
+        for (int i = 1; i <= 8; i++) {
+            tasks.addTask(CommandType.DEADLINE, "Report " + i + " /by 10/1/2024 1200");
+            expected.append("\n10 Jan 2024, Wed @ 12:00PM - ").append(i)
+                    .append(". [D][ ] Report ").append(i).append(" (by: 10 Jan 2024, Wed @ 12:00PM)");
+        }
+        for (int i = 9; i <= 16; i++) {
+            tasks.addTask(CommandType.RECUR, "Chore " + i + " /every week /from 3/1/2024 1200");
+            expected.append("\n10 Jan 2024, Wed @ 12:00PM - ").append(i)
+                    .append(". [R][ ] Chore ").append(i).append(" (every: 7 day(s), from: 03 Jan 2024, Wed @ 12:00PM)");
+        }
+
+        assertEquals(expected.toString(),
+                tasks.listUpcoming(LocalDateTime.of(2024, 1, 5, 0, 0), LocalDateTime.of(2024, 1, 11, 0, 0)));
+    }
+
+    @Test
+    public void importSave_lazilyParsedRecurringTask_shouldExpandOccurrences() throws TrackerBotException {
+        String saveFile = "R|0|Water plants|1577869200|7|1\n";
+        SaveFileIndex index = SaveFileIndex.scan(saveFile.getBytes());
+        TaskList tasks = new TaskList();
+        tasks.deferSearchIndexes();
+        tasks.importSave(index.getTask(0));
+
+        assertEquals("1. [R][ ] Water plants (every: 7 day(s), from: 01 Jan 2020, Wed @ 09:00AM)",
+                tasks.findAll(TaskQuery.compile("type:R by>1/1/2030")));
+        assertEquals(saveFile, tasks.exportSave());
+    }
+
+    @Test
+    public void listConflicts_overlappingEvents_shouldListEachPairOnce() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.EVENT, "Lecture /from 1/10/2024 1000 /to 1/10/2024 1200");
+        tasks.addTask(CommandType.EVENT, "Lunch /from 1/10/2024 1200 /to 1/10/2024 1300");
+        tasks.addTask(CommandType.EVENT, "Cancelled /from 1/10/2024 1100 /to 1/10/2024 1130");
+        tasks.deleteTask(3);
+        String reply = tasks.addTask(CommandType.EVENT, "Meeting /from 1/10/2024 1130 /to 1/10/2024 1230").getText();
+
+        String lecture = "1. [E][ ] Lecture (from: 01 Oct 2024, Tue @ 10:00AM | to: 01 Oct 2024, Tue @ 12:00PM)";
+        String lunch = "2. [E][ ] Lunch (from: 01 Oct 2024, Tue @ 12:00PM | to: 01 Oct 2024, Tue @ 01:00PM)";
+        String meeting = "3. [E][ ] Meeting (from: 01 Oct 2024, Tue @ 11:30AM | to: 01 Oct 2024, Tue @ 12:30PM)";
+        assertEquals("Heads up, it overlaps with these events:\n" + lecture + "\n" + lunch,
+                reply.substring(reply.indexOf("Heads up")));
+        assertEquals("These events overlap:\n" + lecture + "\n  and " + meeting
+                + "\n" + meeting + "\n  and " + lunch, tasks.listConflicts());
+        tasks.markTask(3);
+        assertEquals("None of your events overlap.", tasks.listConflicts());
+    }
+
+    @Test
+    public void listSorted_afterListChanges_shouldKeepCachedOrder() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "banana");
+        tasks.addTask(CommandType.DEADLINE, "Apple /by 2/10/2024");
+        tasks.addTask(CommandType.DEADLINE, "cherry /by 1/10/2024");
+        assertEquals("I am tracking these tasks, sorted by alpha:\n"
+                + "2. [D][ ] Apple (by: 02 Oct 2024, Wed @ 12:00AM)\n"
+                + "1. [T][ ] banana\n"
+                + "3. [D][ ] cherry (by: 01 Oct 2024, Tue @ 12:00AM)", tasks.listSorted("alpha"));
+        tasks.listSorted("status");
+
+        tasks.markTask(1);
+        tasks.addTask(CommandType.TODO, "avocado");
+        tasks.deleteTask(2);
+        assertEquals("I am tracking these tasks, sorted by status:\n"
+                + "2. [D][ ] cherry (by: 01 Oct 2024, Tue @ 12:00AM)\n"
+                + "3. [T][ ] avocado\n"
+                + "1. [T][X] banana", tasks.listSorted("status"));
+        assertEquals("I am tracking these tasks, sorted by alpha:\n"
+                + "3. [T][ ] avocado\n"
+                + "1. [T][X] banana\n"
+                + "2. [D][ ] cherry (by: 01 Oct 2024, Tue @ 12:00AM)", tasks.listSorted("alpha"));
+    }
+
+    @Test
+    public void list_unchangedList_shouldReuseResponseUntilModified() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "Write report");
+        tasks.addTask(CommandType.TODO, "Read report");
+
+        String listed = tasks.list();
+        String found = tasks.findAll("report");
+        assertSame(listed, tasks.list());
+        assertSame(found, tasks.findAll("report"));
+
+        long version = tasks.getVersion();
+        tasks.markTask(2);
+        assertEquals(version + 1, tasks.getVersion());
+        assertNotSame(listed, tasks.list());
+        assertEquals("I am tracking these tasks:\n"
+                + "1. [T][ ] Write report\n"
+                + "2. [T][X] Read report", tasks.list());
+        assertEquals("I am tracking these completed tasks:\n2. [T][X] Read report", tasks.listByStatus(true));
+
+        try {
+            tasks.markTask(2);
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals(version + 1, tasks.getVersion());
+        }
+        tasks.deleteTask(1);
+        assertEquals("I am tracking these tasks:\n1. [T][X] Read report", tasks.list());
+    }
+
+    @Test
+    public void exportJson_mixedTasks_shouldEscapeAndVersion() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "Say \"hi\" \\ wave");
+        tasks.addTask(CommandType.DEADLINE, "Report #Q4 /by 12/12/2000 1800");
+        tasks.markTask(2);
+
+        assertEquals("{\"version\":3,\"tasks\":["
+                + "{\"id\":1,\"type\":\"T\",\"done\":false,\"description\":\"Say \\\"hi\\\" \\\\ wave\","
+                + "\"date\":null,\"end\":null,\"tags\":[]},"
+                + "{\"id\":2,\"type\":\"D\",\"done\":true,\"description\":\"Report\","
+                + "\"date\":\"2000-12-12T18:00\",\"end\":\"2000-12-12T18:00\",\"tags\":[\"q4\"]}]}",
+                tasks.exportJson());
+    }
+
+    @Test
+    public void changeFeed_replayedEvents_shouldRebuildList() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        ChangeFeed feed = new ChangeFeed(64);
+        tasks.setChangeFeed(feed);
+        tasks.addTask(CommandType.TODO, "Before subscribing");
+        long after = feed.subscribe();
+
+        for (int i = 1; i <= 10; i++) {
+            tasks.addTask(CommandType.TODO, "Task " + i);
+        }
+        tasks.markTask(4);
+        tasks.deleteTask(1);
+        BitSet indexes = new BitSet();
+        List.of(2, 5, 9).forEach(indexes::set);
+        tasks.deleteTasks(indexes, new StringBuilder());
+
+        // the subscriber read the list when subscribing, then keeps it up to date from the feed
+        List<Integer> ids = new ArrayList<>(List.of(1));
+        List<Boolean> statuses = new ArrayList<>(List.of(false));
+        for (ChangeEvent event : feed.read(after, 100)) {
+            switch (event.getType()) {
+            case ADDED:
+                ids.add(event.getId());
+                statuses.add(false);
+                break;
+            case REMOVED:
+                assertEquals(event.getId(), (int) ids.remove(event.getPosition() - 1));
+                statuses.remove(event.getPosition() - 1);
+                break;
+            default:
+                assertEquals(event.getId(), (int) ids.get(event.getPosition() - 1));
+                statuses.set(event.getPosition() - 1, event.getType() == ChangeEvent.Type.MARKED);
+            }
+        }
+        assertEquals(List.of(2, 4, 5, 7, 8, 9, 11), ids);
+        assertEquals(List.of(false, true, false, false, false, false, false), statuses);
+        assertEquals(0, feed.read(feed.getLastSequence(), 100).size());
+
+        for (int i = 0; i < 64; i++) {
+            tasks.addTask(CommandType.TODO, "Overflow " + i);
+        }
+        try {
+            feed.read(after, 100);
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals("The change feed has moved past #" + after + ". Please read the whole list again.",
+                    e.getMessage());
+        }
+    }
+}
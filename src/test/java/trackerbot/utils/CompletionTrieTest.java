@@ -0,0 +1,81 @@
+package trackerbot.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test file for CompletionTrie. <br>
+ * Words are added and removed in an order that splits and merges the edges of the tree,
+ * so we test that the most used completion is still found after each change.
+ */
+public class CompletionTrieTest {
+    @Test
+    public void complete_sharedPrefixes_shouldReturnMostUsedWord() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.add("report");
+        trie.add("repair");
+        trie.add("repair");
+        trie.add("rep");
+
+        assertEquals("repair", trie.complete("re"));
+        assertEquals("report", trie.complete("repo"));
+        assertEquals("repair", trie.complete("repair"));
+        assertNull(trie.complete("repairs"));
+        assertNull(trie.complete("x"));
+
+        trie.remove("repair");
+        trie.remove("repair");
+        assertEquals("rep", trie.complete("r"));
+        trie.remove("rep");
+        assertEquals("report", trie.complete("r"));
+        trie.remove("report");
+        assertNull(trie.complete("r"));
+        assertNull(trie.complete(""));
+    }
+
+    @Test
+    public void complete_randomAddsAndRemoves_shouldMatchScanOfAllWords() {
+        CompletionTrie trie = new CompletionTrie();
+        HashMap<String, Integer> counts = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int length = 1 + random.nextInt(5); length > 0; length--) {
+                word.append((char) ('a' + random.nextInt(3)));
+            }
+            String w = word.toString();
+            if (random.nextInt(3) == 0 && counts.containsKey(w)) {
+                trie.remove(w);
+                counts.merge(w, -1, Integer::sum);
+                counts.remove(w, 0);
+            } else {
+                trie.add(w);
+                counts.merge(w, 1, Integer::sum);
+            }
+
+            String prefix = w.substring(0, random.nextInt(w.length() + 1));
+            assertEquals(scanForCompletion(counts, prefix), trie.complete(prefix));
+        }
+    }
+
+    private static String scanForCompletion(Map<String, Integer> counts, String prefix) {
+        String best = null;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            String word = entry.getKey();
+            if (!word.startsWith(prefix)) {
+                continue;
+            }
+            int count = entry.getValue();
+            if (best == null || count > counts.get(best) || (count == counts.get(best) && word.compareTo(best) < 0)) {
+                best = word;
+            }
+        }
+        return best;
+    }
+}
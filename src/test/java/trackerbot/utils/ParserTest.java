@@ -3,10 +3,14 @@ package trackerbot.utils;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import trackerbot.command.CommandType;
 import trackerbot.exception.TrackerBotException;
+import trackerbot.task.Task;
+import trackerbot.task.TaskList;
 
 public class ParserTest {
     @Test
@@ -110,4 +114,122 @@ public class ParserTest {
             // There should be an Illegal State Exception - this is not caught by the program.
         }
     }
+
+    @Test
+    public void parseImportRow_quotedDelimiter_shouldParse() throws TrackerBotException {
+        assertEquals("[D][ ] Pay rent, \"urgent\" (by: 12 Dec 2000, Tue @ 12:00AM)",
+                Parser.parseImportRow("deadline,\"Pay rent, \"\"urgent\"\"\",12/12/2000", ',').toString());
+    }
+
+    @Test
+    public void parseImportRow_taggedDescription_shouldSetTags() throws TrackerBotException {
+        Task task = Parser.parseImportRow("todo,Call mom #home #Family", ',');
+        assertEquals("Call mom", task.getDescription());
+        assertEquals(List.of("family", "home"), task.getTags());
+
+        try {
+            Parser.parseImportRow("todo,#home", ',');
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals("Empty field: todo,[description]", e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseImportRow_missingField_shouldThrow() {
+        try {
+            Parser.parseImportRow("event\tTest Input\t1/12/2000", '\t');
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals("Improper format: event\t[description]\t[start-date]\t[end-date]", e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseIndexSelection_rangesAndWildcards_shouldSelectUnion() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= 10; i++) {
+            tasks.addTask(CommandType.TODO, "Task " + i);
+        }
+        tasks.markTask(10);
+
+        StringBuilder errorLog = new StringBuilder();
+        assertEquals("{2, 3, 4, 5, 7, 9, 10}",
+                Parser.parseIndexSelection("2-5; 3-9/2 ;done", tasks, errorLog).toString());
+        assertEquals("", errorLog.toString());
+        assertEquals("{1, 2, 3, 4, 5, 6, 7, 8, 9}", Parser.parseIndexSelection("todo", tasks, errorLog).toString());
+        assertEquals(10, Parser.parseIndexSelection("all;4", tasks, errorLog).cardinality());
+    }
+
+    @Test
+    public void parseIndexSelection_invalidSelectors_shouldLogAndSkip() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        for (int i = 1; i <= 10; i++) {
+            tasks.addTask(CommandType.TODO, "Task " + i);
+        }
+
+        StringBuilder errorLog = new StringBuilder();
+        assertEquals("{1, 2}", Parser.parseIndexSelection("1;1;5-11;6-2;1-4/0;x-3;0;2", tasks, errorLog).toString());
+        assertEquals("\n1 - Duplicate index!"
+                + "\n5-11 - Invalid range: the range should be within 1-10."
+                + "\n6-2 - Invalid range: the range should be within 1-10."
+                + "\n1-4/0 - Invalid step: the step of a range should be positive."
+                + "\nx-3 - Invalid format: [index/#id/#tag/start-end[/step]/all/done/todo]"
+                + "\n0 - The specified task does not exist.", errorLog.toString());
+    }
+
+    @Test
+    public void parseTaskIndex_indexOrId_shouldResolveIndex() throws TrackerBotException {
+        TaskList tasks = new TaskList();
+        tasks.addTask(CommandType.TODO, "First");
+        tasks.addTask(CommandType.TODO, "Second");
+        tasks.deleteTask(1);
+
+        assertEquals(1, Parser.parseTaskIndex("#2", tasks, "delete [number in list range/#id]"));
+        assertEquals(5, Parser.parseTaskIndex("5", tasks, "delete [number in list range/#id]"));
+        try {
+            Parser.parseTaskIndex("1 2", tasks, "delete [number in list range/#id]");
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals("Too many fields: delete [number in list range/#id]", e.getMessage());
+        }
+        try {
+            Parser.parseTaskIndex("#x", tasks, "delete [number in list range/#id]");
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals("Invalid format: delete [number in list range/#id]", e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseWorkspaceName_mixedCase_shouldLowercase() throws TrackerBotException {
+        assertEquals("team-a_2", Parser.parseWorkspaceName("  Team-A_2 "));
+    }
+
+    @Test
+    public void parseWorkspaceName_pathCharacters_shouldThrow() {
+        try {
+            Parser.parseWorkspaceName("../work");
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals("Invalid workspace name: use up to 32 letters, digits, - and _.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseAdd_tagsInDescription_shouldExtractTags() throws TrackerBotException {
+        Task task = Parser.parseAdd(CommandType.DEADLINE, "#Work Submit report #q4 for issue #12 /by 12/12/2000");
+        assertEquals("Submit report for issue #12", task.getDescription());
+        assertEquals(List.of("q4", "work"), task.getTags());
+    }
+
+    @Test
+    public void parseTags_nonTagWord_shouldThrow() {
+        try {
+            Parser.parseTags("#work done");
+            fail();
+        } catch (TrackerBotException e) {
+            assertEquals("Invalid format: list #tag [#tag...], where tags start with a letter", e.getMessage());
+        }
+    }
 }